@@ -0,0 +1,40 @@
+// Turns the frame timestamps an AnimationTimer gets into a whole number of fixed-length game
+// ticks, carrying what's left over into the next frame, so a game runs at the same pace on a
+// 60 Hz or a 144 Hz display and under load. After a long stall (a dragged window, a GC pause)
+// it only catches up a quarter of a second rather than fast-forwarding through it.
+class FixedStepClock {
+    private static final long MAX_CATCH_UP_NANOS = 250_000_000L;
+    
+    private final long nanosPerTick;
+    private long lastFrame = -1;
+    private long accumulator = 0;
+    
+    FixedStepClock(int ticksPerSecond) {
+        this.nanosPerTick = 1_000_000_000L / ticksPerSecond;
+    }
+    
+    // How many ticks to run for a frame at time now (in nanoseconds, as AnimationTimer gives it)
+    int advance(long now) {
+        if (lastFrame < 0) {
+            lastFrame = now;
+        }
+        accumulator += Math.min(now - lastFrame, MAX_CATCH_UP_NANOS);
+        lastFrame = now;
+        
+        int ticks = (int) (accumulator / nanosPerTick);
+        accumulator -= ticks * nanosPerTick;
+        return ticks;
+    }
+    
+    // When a tick run for the frame at time now ends, given how many ticks are left to run
+    // counting that one: the last ends where the time carried over begins, the ones before it
+    // a tick apart. For taking the input that happened before each tick, in order.
+    long tickEnd(long now, int ticksLeft) {
+        return now - accumulator - (ticksLeft - 1) * nanosPerTick;
+    }
+    
+    // How far along the next tick is (0 to 1), for drawing part way between the last two
+    double alpha() {
+        return (double) accumulator / nanosPerTick;
+    }
+}
\ No newline at end of file
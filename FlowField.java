@@ -0,0 +1,149 @@
+import java.util.Arrays;
+
+// A flow field over a grid of cells, some blocked, toward one target cell: a breadth-first
+// search out from the target gives every open cell its distance in steps, and each cell then
+// points at whichever neighbour is closest. Anything chasing the target just follows the
+// arrow of the cell it's in, so any number of chasers cost one search between them rather
+// than a path search each, and the search only runs again when the target changes cells.
+class FlowField {
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+    
+    final double cellSize;
+    final int columns;
+    final int rows;
+    final boolean[] blocked;
+    
+    // Per cell: steps to the target, and a unit vector toward the next cell on the way (zero in
+    // the target cell itself and in cells that can't reach it)
+    final int[] distance;
+    final double[] directionX;
+    final double[] directionY;
+    
+    private final int[] queue;
+    private int target = -1;
+    
+    FlowField(double width, double height, double cellSize) {
+        this.cellSize = cellSize;
+        columns = (int) Math.ceil(width / cellSize);
+        rows = (int) Math.ceil(height / cellSize);
+        blocked = new boolean[columns * rows];
+        distance = new int[columns * rows];
+        directionX = new double[columns * rows];
+        directionY = new double[columns * rows];
+        queue = new int[columns * rows];
+    }
+    
+    // The cell holding (x, y), clamped to the grid
+    int cellAt(double x, double y) {
+        int column = Math.max(0, Math.min(columns - 1, (int) (x / cellSize)));
+        int row = Math.max(0, Math.min(rows - 1, (int) (y / cellSize)));
+        return row * columns + column;
+    }
+    
+    boolean blockedAt(double x, double y) {
+        return blocked[cellAt(x, y)];
+    }
+    
+    // Whether any blocked cell overlaps the square reaching radius out from (x, y) each way,
+    // which is what something round of that radius would bump into
+    boolean blockedNear(double x, double y, double radius) {
+        return blockedIn(x - radius, y - radius, x + radius, y + radius);
+    }
+    
+    // Whether any blocked cell overlaps a rectangle
+    boolean blockedIn(double left, double top, double right, double bottom) {
+        int first = cellAt(left, top);
+        int last = cellAt(right, bottom);
+        for (int row = first / columns; row <= last / columns; row++) {
+            for (int column = first % columns; column <= last % columns; column++) {
+                if (blocked[row * columns + column]) return true;
+            }
+        }
+        return false;
+    }
+    
+    // The middle of a cell
+    double centerX(int cell) {
+        return (cell % columns + 0.5) * cellSize;
+    }
+    
+    double centerY(int cell) {
+        return (cell / columns + 0.5) * cellSize;
+    }
+    
+    // Blocks a rectangle of cells; the field is recomputed on the next target()
+    void block(int column, int row, int width, int height) {
+        for (int r = row; r < row + height; r++) {
+            for (int c = column; c < column + width; c++) {
+                blocked[r * columns + c] = true;
+            }
+        }
+        target = -1;
+    }
+    
+    // Points the field at the cell holding (x, y), searching again only if that's a different
+    // cell from last time. Returns whether it searched.
+    boolean target(double x, double y) {
+        int cell = cellAt(x, y);
+        if (cell == target) return false;
+        target = cell;
+        
+        Arrays.fill(distance, UNREACHABLE);
+        int head = 0;
+        int tail = 0;
+        distance[cell] = 0;
+        queue[tail++] = cell;
+        while (head < tail) {
+            int from = queue[head++];
+            int column = from % columns;
+            int next = distance[from] + 1;
+            if (column > 0) tail = visit(from - 1, next, tail);
+            if (column < columns - 1) tail = visit(from + 1, next, tail);
+            if (from >= columns) tail = visit(from - columns, next, tail);
+            if (from < (rows - 1) * columns) tail = visit(from + columns, next, tail);
+        }
+        
+        for (int i = 0; i < distance.length; i++) {
+            point(i);
+        }
+        return true;
+    }
+    
+    private int visit(int cell, int next, int tail) {
+        if (blocked[cell] || distance[cell] != UNREACHABLE) return tail;
+        distance[cell] = next;
+        queue[tail] = cell;
+        return tail + 1;
+    }
+    
+    // Aims a cell at its closest neighbour, diagonals included where both cells beside the
+    // diagonal are open, so chasers cut across open ground but never clip a corner
+    private void point(int cell) {
+        directionX[cell] = 0;
+        directionY[cell] = 0;
+        int best = distance[cell];
+        if (best == 0 || best == UNREACHABLE) return;
+        
+        int column = cell % columns;
+        int row = cell / columns;
+        int bestX = 0;
+        int bestY = 0;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                int c = column + dx;
+                int r = row + dy;
+                if ((dx == 0 && dy == 0) || c < 0 || c >= columns || r < 0 || r >= rows) continue;
+                if (dx != 0 && dy != 0 && (blocked[row * columns + c] || blocked[r * columns + column])) continue;
+                int d = distance[r * columns + c];
+                if (d < best) {
+                    best = d;
+                    bestX = dx;
+                    bestY = dy;
+                }
+            }
+        }
+        double length = bestX != 0 && bestY != 0 ? Math.sqrt(2) : 1;
+        directionX[cell] = bestX / length;
+        directionY[cell] = bestY / length;
+    }
+}
\ No newline at end of file
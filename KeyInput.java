@@ -0,0 +1,125 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+
+// Keyboard input for the games' simulations, shared by all three. Key presses and releases
+// are stamped with System.nanoTime() as they arrive and queued in a ring buffer; each tick
+// then takes the events up to the time that tick stands for, in order, so what a tick sees
+// doesn't depend on how the events happened to fall between frames. A key that went down and
+// came up again within one tick still counts as held for that tick, so a tap shorter than a
+// frame is never lost the way it was when ticks only looked at which keys were held.
+//
+// The ring is lock-free for one thread queueing and one taking events, so the events could
+// come from another thread than the one running the game; if it ever fills (a stall of over
+// a thousand key events), the newest are dropped.
+//
+// Every event's time is kept until the next frame after the tick that took it. By then the
+// frame showing its effect has gone to the screen, so the difference is its input-to-present
+// latency, which goes to the PerfOverlay.
+class KeyInput {
+    private static final int CAPACITY = 1024; // A power of two
+    private static final int MAX_KEYS = 64;
+    
+    // The keys that matter to the simulation, by KeyCode ordinal, and the input bits of each
+    private final int[] keyOf = new int[KeyCode.values().length];
+    private final int[] bitsOf = new int[MAX_KEYS];
+    private int keys = 0;
+    
+    // The ring: when each event happened, and which key went down (key * 2 + 1) or up (key * 2).
+    // tail is only moved by the queueing thread, head by the taking one.
+    private final long[] times = new long[CAPACITY];
+    private final int[] events = new int[CAPACITY];
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    
+    // The taking side: keys held down (a bit per key), and events taken since the last present
+    private long held = 0;
+    private final long[] taken = new long[CAPACITY];
+    private int takenCount = 0;
+    
+    KeyInput() {
+        Arrays.fill(keyOf, -1);
+    }
+    
+    // Makes a key set the given input bits while it's held; several keys may share bits
+    KeyInput bind(KeyCode code, int bits) {
+        if (keyOf[code.ordinal()] < 0) {
+            if (keys == MAX_KEYS) throw new IllegalStateException("Too many keys bound");
+            keyOf[code.ordinal()] = keys++;
+        }
+        bitsOf[keyOf[code.ordinal()]] |= bits;
+        return this;
+    }
+    
+    // Queues a key pressed or released event; false, queueing nothing, if the key isn't bound
+    boolean offer(KeyEvent event) {
+        int key = keyOf[event.getCode().ordinal()];
+        if (key < 0) return false;
+        offer(key, event.getEventType() == KeyEvent.KEY_PRESSED, System.nanoTime());
+        return true;
+    }
+    
+    void offer(int key, boolean pressed, long time) {
+        long t = tail.get();
+        if (t - head.getAcquire() == CAPACITY) {
+            dropped.incrementAndGet();
+            return;
+        }
+        int slot = (int) t & (CAPACITY - 1);
+        times[slot] = time;
+        events[slot] = key * 2 + (pressed ? 1 : 0);
+        tail.setRelease(t + 1);
+    }
+    
+    long dropped() {
+        return dropped.get();
+    }
+    
+    // The input bits for a tick that ends at time tickEnd: the keys held at its end, and any
+    // pressed during it
+    int input(long tickEnd) {
+        long h = head.get();
+        long t = tail.getAcquire();
+        int tapped = 0;
+        for (; h < t; h++) {
+            int slot = (int) h & (CAPACITY - 1);
+            if (times[slot] > tickEnd) break;
+            int key = events[slot] >> 1;
+            if ((events[slot] & 1) != 0) {
+                held |= 1L << key;
+                tapped |= bitsOf[key];
+            } else {
+                held &= ~(1L << key);
+            }
+            if (takenCount < CAPACITY) {
+                taken[takenCount++] = times[slot];
+            }
+        }
+        head.setRelease(h);
+        
+        int input = tapped;
+        for (long k = held; k != 0; k &= k - 1) {
+            input |= bitsOf[Long.numberOfTrailingZeros(k)];
+        }
+        return input;
+    }
+    
+    // Call at the start of each frame, with AnimationTimer's timestamp, to time the events the
+    // last frame's ticks took
+    void presented(long now, PerfOverlay perf) {
+        for (int i = 0; i < takenCount; i++) {
+            perf.recordInputLatency(now - taken[i]);
+        }
+        takenCount = 0;
+    }
+    
+    // Forgets every key held and every event not yet taken, so nothing moves until a key is
+    // pressed again. Only for the taking side.
+    void clear() {
+        head.setRelease(tail.getAcquire());
+        held = 0;
+        takenCount = 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// A histogram of durations in nanoseconds, in the style of HdrHistogram: values are counted in
+// buckets that double in width every power of two, with 32 sub-buckets each, so any value is
+// recorded to within about 3% using a fixed 15 KB of counters and no allocation. Recording is
+// a couple of atomic adds, so any thread may record while another reads or resets.
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Enough buckets for any non-negative long
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    
+    void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucketOf(nanos));
+        total.incrementAndGet();
+        long seen = max.get();
+        while (nanos > seen && !max.compareAndSet(seen, nanos)) {
+            seen = max.get();
+        }
+    }
+    
+    long count() {
+        return total.get();
+    }
+    
+    long max() {
+        return max.get();
+    }
+    
+    // The value at or below which the fraction p (0 to 1) of the recorded values lie,
+    // rounded up to the top of its bucket. 0 when nothing has been recorded.
+    long percentile(double p) {
+        long target = Math.max(1, (long) Math.ceil(p * total.get()));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestInBucket(i), max.get());
+            }
+        }
+        return max.get();
+    }
+    
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.set(0);
+        max.set(0);
+    }
+    
+    // Writes the percentile distribution as text, one line per non-empty bucket
+    void write(PrintWriter out, String title) {
+        long count = total.get();
+        out.printf("# %s: %d samples, p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms%n",
+                title, count, percentile(0.50) / 1e6, percentile(0.99) / 1e6, percentile(0.999) / 1e6, max() / 1e6);
+        out.printf("# %12s %12s %12s%n", "Value (ms)", "Percentile", "Count");
+        long seen = 0;
+        for (int i = 0; i < BUCKETS && count > 0; i++) {
+            long n = counts.get(i);
+            if (n == 0) continue;
+            seen += n;
+            out.printf("  %12.3f %12.6f %12d%n", highestInBucket(i) / 1e6, (double) seen / count, seen);
+        }
+        out.println();
+    }
+    
+    // Values below 2 * SUB_BUCKETS get a bucket each; above that, every power of two
+    // range is split into SUB_BUCKETS equal parts
+    private static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+    
+    private static long highestInBucket(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Frame timing for the games, shown in a corner when toggled (F3) and saved to perf/ when the
+// game closes. Each game times its own update and draw calls and reports them here once per
+// frame; the overlay only rebuilds its text a couple of times a second, so leaving it on
+// doesn't distort what it measures.
+class PerfOverlay {
+    private static final long REFRESH_NANOS = 500_000_000L;
+    private static final double WIDTH = 260;
+    private static final double LINE_HEIGHT = 16;
+    
+    private final String game;
+    
+    // Whole run, for the file written on exit
+    private final LatencyHistogram frameTimes = new LatencyHistogram();
+    private final LatencyHistogram updateTimes = new LatencyHistogram();
+    private final LatencyHistogram drawTimes = new LatencyHistogram();
+    private final LatencyHistogram inputLatencies = new LatencyHistogram();
+    
+    // Since the overlay was last refreshed, for what's on screen
+    private final LatencyHistogram recentUpdateTimes = new LatencyHistogram();
+    private final LatencyHistogram recentDrawTimes = new LatencyHistogram();
+    private final LatencyHistogram recentInputLatencies = new LatencyHistogram();
+    private long recentFrames = 0;
+    
+    // Allocation by the FX thread (null when the JVM can't tell us)
+    private final com.sun.management.ThreadMXBean threads;
+    private long allocatedAtRefresh = -1;
+    
+    private final Font font = Font.font("Monospace", 12);
+    private final String[] lines = new String[5];
+    private boolean visible = false;
+    private boolean changed = false;
+    private long lastFrame = -1;
+    private long lastRefresh = -1;
+    
+    PerfOverlay(String game) {
+        this.game = game;
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean &&
+            ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threads = (com.sun.management.ThreadMXBean) bean;
+            threads.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            threads = null;
+        }
+        lines[0] = "measuring...";
+    }
+    
+    void toggle() {
+        visible = !visible;
+        changed = true;
+    }
+    
+    void recordUpdate(long nanos) {
+        updateTimes.record(nanos);
+        recentUpdateTimes.record(nanos);
+    }
+    
+    void recordDraw(long nanos) {
+        drawTimes.record(nanos);
+        recentDrawTimes.record(nanos);
+    }
+    
+    // From a key event to the frame showing its effect reaching the screen (see KeyInput)
+    void recordInputLatency(long nanos) {
+        inputLatencies.record(nanos);
+        recentInputLatencies.record(nanos);
+    }
+    
+    // Call once per frame with the AnimationTimer's timestamp and how many things are in play
+    void frame(long now, int entities) {
+        if (lastFrame >= 0) {
+            frameTimes.record(now - lastFrame);
+        }
+        lastFrame = now;
+        recentFrames++;
+        
+        if (lastRefresh < 0) {
+            lastRefresh = now;
+            allocatedAtRefresh = allocatedBytes();
+        }
+        long elapsed = now - lastRefresh;
+        if (elapsed < REFRESH_NANOS) return;
+        
+        double seconds = elapsed / 1e9;
+        long allocated = allocatedBytes();
+        lines[0] = String.format("%5.1f fps  %d entities", recentFrames / seconds, entities);
+        lines[1] = timesLine("update", recentUpdateTimes);
+        lines[2] = timesLine("draw  ", recentDrawTimes);
+        lines[3] = allocated < 0 ? "alloc  n/a" :
+                   String.format("alloc  %.1f MB/s", (allocated - allocatedAtRefresh) / seconds / (1 << 20));
+        lines[4] = recentInputLatencies.count() == 0 ? "input  no keys" : timesLine("input ", recentInputLatencies);
+        
+        recentUpdateTimes.reset();
+        recentDrawTimes.reset();
+        recentInputLatencies.reset();
+        recentFrames = 0;
+        lastRefresh = now;
+        allocatedAtRefresh = allocated;
+        changed = true;
+    }
+    
+    private static String timesLine(String label, LatencyHistogram times) {
+        return String.format("%s p50 %.2f  p99 %.2f  max %.2f ms", label,
+                times.percentile(0.50) / 1e6, times.percentile(0.99) / 1e6, times.max() / 1e6);
+    }
+    
+    private long allocatedBytes() {
+        return threads == null ? -1 : threads.getCurrentThreadAllocatedBytes();
+    }
+    
+    // Whether the overlay looks different since it was last drawn (for games that keep it on
+    // its own layer and only redraw that when needed)
+    boolean needsRedraw() {
+        return changed;
+    }
+    
+    // Draws the overlay in the top left corner, if it's showing
+    void draw(GraphicsContext gc) {
+        changed = false;
+        if (!visible) return;
+        
+        gc.save(); // Games that share their context with us keep their own fill and font
+        gc.setFill(Color.rgb(0, 0, 0, 0.7));
+        gc.fillRect(0, 0, WIDTH, lines.length * LINE_HEIGHT + 8);
+        gc.setFill(Color.LIME);
+        gc.setFont(font);
+        gc.setTextAlign(TextAlignment.LEFT);
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i] != null) {
+                gc.fillText(lines[i], 6, (i + 1) * LINE_HEIGHT);
+            }
+        }
+        gc.restore();
+    }
+    
+    // Writes the whole run's histograms to perf/<game>-<time>.txt
+    void save() throws IOException {
+        if (frameTimes.count() == 0) return;
+        Path dir = Paths.get("perf");
+        Files.createDirectories(dir);
+        Path file = dir.resolve(game + "-" + System.currentTimeMillis() + ".txt");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            frameTimes.write(out, game + " frame time");
+            updateTimes.write(out, game + " update time");
+            drawTimes.write(out, game + " draw time");
+            inputLatencies.write(out, game + " input latency");
+        }
+    }
+}
\ No newline at end of file
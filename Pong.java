@@ -2,6 +2,7 @@ import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
@@ -10,44 +11,114 @@ import javafx.scene.text.FontWeight;
 import javafx.scene.text.TextAlignment;
 import javafx.stage.Stage;
 import javafx.animation.AnimationTimer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.List;
 
 public class Pong extends Application {
-    private static final int WINDOW_WIDTH = 800;
-    private static final int WINDOW_HEIGHT = 600;
-    private static final int PADDLE_WIDTH = 20;
-    private static final int PADDLE_HEIGHT = 100;
-    private static final int BALL_SIZE = 20;
-    private static final double PADDLE_SPEED = 5.0;
-    private static final double INITIAL_BALL_SPEED = 3.0;
+    private static final int WINDOW_WIDTH = PongSimulation.COURT_WIDTH;
+    private static final int WINDOW_HEIGHT = PongSimulation.COURT_HEIGHT;
+    private static final int PADDLE_WIDTH = PongSimulation.PADDLE_WIDTH;
+    private static final int PADDLE_HEIGHT = PongSimulation.PADDLE_HEIGHT;
+    private static final int BALL_SIZE = PongSimulation.BALL_SIZE;
     
-    // Game objects
-    private double player1Y = WINDOW_HEIGHT / 2 - PADDLE_HEIGHT / 2;
-    private double player2Y = WINDOW_HEIGHT / 2 - PADDLE_HEIGHT / 2;
-    private double ballX = WINDOW_WIDTH / 2;
-    private double ballY = WINDOW_HEIGHT / 2;
-    private double ballVelX = INITIAL_BALL_SPEED;
-    private double ballVelY = INITIAL_BALL_SPEED;
+    // Game rules and objects
+    private PongSimulation sim = new PongSimulation();
+    private long matchSeed = System.nanoTime();
+    
+    // Positions at the previous tick, used to interpolate between ticks when drawing
+    private double prevPlayer1Y = sim.player1Y;
+    private double prevPlayer2Y = sim.player2Y;
+    private double prevBallX = sim.ballX;
+    private double prevBallY = sim.ballY;
+    
+    // Fixed timestep: physics runs at a constant rate no matter the display refresh rate
+    private final FixedStepClock clock = new FixedStepClock(PongSimulation.TICKS_PER_SECOND);
     
     // Game state
-    private int player1Score = 0;
-    private int player2Score = 0;
     private boolean gameStarted = false;
-    private boolean gameOver = false;
-    private final int WINNING_SCORE = 10;
     
-    // Controls
-    private boolean wPressed = false;
-    private boolean sPressed = false;
-    private boolean upPressed = false;
-    private boolean downPressed = false;
+    // Network play (null when both players share this keyboard).
+    // Start with: --net <player 1|2> <local port> <peer host:port>
+    private PongNetSession netSession;
+    
+    // Every match is recorded to replays/ so it can be played back with --replay <file>
+    private PongReplay.Writer recorder;
+    private PongReplay replay;
+    
+    // Computer-controlled player 2 (null when player 2 is a human)
+    private PongAI cpu;
+    
+    // Controls, taken by each tick in the order they happened: W/S for player 1, Up/Down for player 2
+    private final KeyInput keys = new KeyInput()
+        .bind(KeyCode.W, PongSimulation.P1_UP).bind(KeyCode.S, PongSimulation.P1_DOWN)
+        .bind(KeyCode.UP, PongSimulation.P2_UP).bind(KeyCode.DOWN, PongSimulation.P2_DOWN);
+    private int keyInput = 0; // For the tick being run
+    
+    // Rendering layers: a static background drawn once, the scores and messages
+    // redrawn only when they change, and the moving objects redrawn where they moved
+    private GraphicsContext hudGc;
+    private GraphicsContext playGc;
+    
+    // Frame timing overlay (F3), on a layer of its own above everything else
+    private PerfOverlay perf;
+    private GraphicsContext perfGc;
+    
+    // Fonts are created once rather than every frame
+    private final Font scoreFont = Font.font("Arial", FontWeight.BOLD, 48);
+    private final Font titleFont = Font.font("Arial", FontWeight.BOLD, 24);
+    private final Font winnerFont = Font.font("Arial", FontWeight.BOLD, 36);
+    private final Font instructionFont = Font.font("Arial", 16);
+    private final Font restartFont = Font.font("Arial", 18);
+    private final Font reminderFont = Font.font("Arial", 12);
+    
+    // What the HUD layer currently shows
+    private int hudPlayer1Score = -1;
+    private int hudPlayer2Score = -1;
+    private boolean hudGameStarted;
+    private boolean hudGameOver;
+    private PongAI hudCpu;
+    private int hudChaosBalls;
+    
+    // Where the play layer's objects are currently drawn (NaN when not drawn)
+    private double drawnPlayer1Y = Double.NaN;
+    private double drawnPlayer2Y = Double.NaN;
+    private double drawnBallX = Double.NaN;
+    private double drawnBallY = Double.NaN;
+    private boolean chaosDrawn = false;
     
     @Override
-    public void start(Stage primaryStage) {
-        Canvas canvas = new Canvas(WINDOW_WIDTH, WINDOW_HEIGHT);
-        GraphicsContext gc = canvas.getGraphicsContext2D();
+    public void start(Stage primaryStage) throws IOException {
+        perf = new PerfOverlay("Pong");
+        
+        List<String> args = getParameters().getRaw();
+        if (args.size() == 4 && args.get(0).equals("--net")) {
+            String[] peer = args.get(3).split(":");
+            netSession = new PongNetSession(sim, Integer.parseInt(args.get(1)), Integer.parseInt(args.get(2)),
+                                            new InetSocketAddress(peer[0], Integer.parseInt(peer[1])));
+        } else if (args.size() == 2 && args.get(0).equals("--replay")) {
+            replay = PongReplay.load(Paths.get(args.get(1)));
+            sim = replay.newSimulation();
+            gameStarted = true;
+        } else {
+            sim.restart(matchSeed);
+        }
+        savePreviousPositions();
+        
+        Canvas backgroundCanvas = new Canvas(WINDOW_WIDTH, WINDOW_HEIGHT);
+        Canvas playCanvas = new Canvas(WINDOW_WIDTH, WINDOW_HEIGHT);
+        Canvas hudCanvas = new Canvas(WINDOW_WIDTH, WINDOW_HEIGHT);
+        Canvas perfCanvas = new Canvas(WINDOW_WIDTH, WINDOW_HEIGHT);
+        drawBackground(backgroundCanvas.getGraphicsContext2D());
+        playGc = playCanvas.getGraphicsContext2D();
+        playGc.setFill(Color.WHITE);
+        hudGc = hudCanvas.getGraphicsContext2D();
+        perfGc = perfCanvas.getGraphicsContext2D();
         
         StackPane root = new StackPane();
-        root.getChildren().add(canvas);
+        root.getChildren().addAll(backgroundCanvas, playCanvas, hudCanvas, perfCanvas);
         Scene scene = new Scene(root, WINDOW_WIDTH, WINDOW_HEIGHT);
         
         // Handle key events
@@ -58,8 +129,27 @@ public class Pong extends Application {
         AnimationTimer gameLoop = new AnimationTimer() {
             @Override
             public void handle(long now) {
-                update();
-                draw(gc);
+                keys.presented(now, perf);
+                
+                // Run as many physics ticks as the elapsed time calls for
+                for (int ticks = clock.advance(now); ticks > 0; ticks--) {
+                    savePreviousPositions();
+                    keyInput = keys.input(clock.tickEnd(now, ticks));
+                    long updateStart = System.nanoTime();
+                    update();
+                    perf.recordUpdate(System.nanoTime() - updateStart);
+                }
+                
+                // Draw part way between the last two ticks so motion stays smooth
+                long drawStart = System.nanoTime();
+                draw(clock.alpha());
+                perf.recordDraw(System.nanoTime() - drawStart);
+                
+                perf.frame(now, 3 + sim.chaosBallCount); // Two paddles and the balls
+                if (perf.needsRedraw()) {
+                    perfGc.clearRect(0, 0, WINDOW_WIDTH, WINDOW_HEIGHT);
+                    perf.draw(perfGc);
+                }
             }
         };
         
@@ -68,200 +158,169 @@ public class Pong extends Application {
         primaryStage.setResizable(false);
         primaryStage.show();
         
-        canvas.setFocusTraversable(true);
-        canvas.requestFocus();
+        hudCanvas.setFocusTraversable(true);
+        hudCanvas.requestFocus();
         
         gameLoop.start();
     }
     
+    @Override
+    public void stop() throws IOException {
+        if (netSession != null) {
+            netSession.close();
+        }
+        stopRecording();
+        perf.save();
+    }
+    
     private void handleKeyPressed(KeyEvent event) {
+        if (keys.offer(event)) return;
+        
         switch (event.getCode()) {
-            // Player 1 controls (W/S)
-            case W:
-                wPressed = true;
-                break;
-            case S:
-                sPressed = true;
-                break;
-            // Player 2 controls (Up/Down arrows)
-            case UP:
-                upPressed = true;
-                break;
-            case DOWN:
-                downPressed = true;
-                break;
-            // Game controls
+            // Game controls (a network match just runs from start to finish)
             case SPACE:
-                if (!gameStarted && !gameOver) {
+                if (netSession != null) break;
+                if (!gameStarted && !sim.gameOver) {
                     gameStarted = true;
                 }
                 break;
             case R:
-                if (gameOver) {
+                if (netSession == null && replay == null && sim.gameOver) {
+                    restart();
+                }
+                break;
+            case C:
+                // Cycle player 2 between a human and each CPU difficulty
+                if (netSession == null && replay == null && !gameStarted) {
+                    if (cpu == null) {
+                        cpu = new PongAI(true, PongAI.Difficulty.EASY, System.nanoTime());
+                    } else if (cpu.difficulty.next() == PongAI.Difficulty.EASY) {
+                        cpu = null;
+                    } else {
+                        cpu = new PongAI(true, cpu.difficulty.next(), System.nanoTime());
+                    }
+                }
+                break;
+            case M:
+                // Cycle chaos mode (lots of extra balls); this restarts the match
+                if (netSession == null && replay == null && !gameStarted) {
+                    int balls = sim.chaosBallCount == 0 ? 1000 : sim.chaosBallCount == 1000 ? 5000 : 0;
+                    sim.setChaosBalls(balls);
                     restart();
                 }
                 break;
             case ESCAPE:
-                if (gameStarted && !gameOver) {
+                if (netSession == null && gameStarted && !sim.gameOver) {
                     gameStarted = false; // Pause
                 }
                 break;
+            case F3:
+                perf.toggle();
+                break;
         }
     }
     
     private void handleKeyReleased(KeyEvent event) {
-        switch (event.getCode()) {
-            case W:
-                wPressed = false;
-                break;
-            case S:
-                sPressed = false;
-                break;
-            case UP:
-                upPressed = false;
-                break;
-            case DOWN:
-                downPressed = false;
-                break;
-        }
+        keys.offer(event);
     }
     
-    private void update() {
-        if (!gameStarted || gameOver) return;
-        
-        // Update paddles
-        updatePaddles();
-        
-        // Update ball
-        updateBall();
-        
-        // Check for scoring
-        checkScoring();
-        
-        // Check for game over
-        if (player1Score >= WINNING_SCORE || player2Score >= WINNING_SCORE) {
-            gameOver = true;
-        }
+    private void savePreviousPositions() {
+        prevPlayer1Y = sim.player1Y;
+        prevPlayer2Y = sim.player2Y;
+        prevBallX = sim.ballX;
+        prevBallY = sim.ballY;
     }
     
-    private void updatePaddles() {
-        // Player 1 (left paddle)
-        if (wPressed && player1Y > 0) {
-            player1Y -= PADDLE_SPEED;
-        }
-        if (sPressed && player1Y < WINDOW_HEIGHT - PADDLE_HEIGHT) {
-            player1Y += PADDLE_SPEED;
+    private void update() {
+        if (netSession != null) {
+            updateNetwork();
+            return;
         }
+        if (!gameStarted || sim.gameOver) return;
         
-        // Player 2 (right paddle)
-        if (upPressed && player2Y > 0) {
-            player2Y -= PADDLE_SPEED;
+        int input = keyInput;
+        if (cpu != null) {
+            input = (input & (PongSimulation.P1_UP | PongSimulation.P1_DOWN)) | cpu.input(sim);
         }
-        if (downPressed && player2Y < WINDOW_HEIGHT - PADDLE_HEIGHT) {
-            player2Y += PADDLE_SPEED;
+        if (replay != null) {
+            if (!replay.hasNext()) return; // The recording ended before the match did
+            input = replay.next();
         }
         
-        // Keep paddles in bounds
-        player1Y = Math.max(0, Math.min(WINDOW_HEIGHT - PADDLE_HEIGHT, player1Y));
-        player2Y = Math.max(0, Math.min(WINDOW_HEIGHT - PADDLE_HEIGHT, player2Y));
-    }
-    
-    private void updateBall() {
-        ballX += ballVelX;
-        ballY += ballVelY;
-        
-        // Ball collision with top and bottom walls
-        if (ballY <= 0 || ballY >= WINDOW_HEIGHT - BALL_SIZE) {
-            ballVelY = -ballVelY;
-            ballY = Math.max(0, Math.min(WINDOW_HEIGHT - BALL_SIZE, ballY));
-        }
-        
-        // Ball collision with paddles
-        checkPaddleCollision();
-    }
-    
-    private void checkPaddleCollision() {
-        // Left paddle collision (Player 1)
-        if (ballX <= PADDLE_WIDTH && 
-            ballY + BALL_SIZE >= player1Y && 
-            ballY <= player1Y + PADDLE_HEIGHT &&
-            ballVelX < 0) {
-            
-            ballVelX = -ballVelX;
-            ballX = PADDLE_WIDTH;
-            
-            // Add some spin based on where ball hits paddle
-            double paddleCenter = player1Y + PADDLE_HEIGHT / 2;
-            double hitPosition = (ballY + BALL_SIZE / 2 - paddleCenter) / (PADDLE_HEIGHT / 2);
-            ballVelY += hitPosition * 2; // Add spin
-            
-            // Speed up slightly
-            ballVelX *= 1.05;
-            ballVelY *= 1.05;
-        }
+        int pointsBefore = sim.player1Score + sim.player2Score;
+        sim.step(input);
         
-        // Right paddle collision (Player 2)
-        if (ballX + BALL_SIZE >= WINDOW_WIDTH - PADDLE_WIDTH && 
-            ballY + BALL_SIZE >= player2Y && 
-            ballY <= player2Y + PADDLE_HEIGHT &&
-            ballVelX > 0) {
-            
-            ballVelX = -ballVelX;
-            ballX = WINDOW_WIDTH - PADDLE_WIDTH - BALL_SIZE;
-            
-            // Add some spin based on where ball hits paddle
-            double paddleCenter = player2Y + PADDLE_HEIGHT / 2;
-            double hitPosition = (ballY + BALL_SIZE / 2 - paddleCenter) / (PADDLE_HEIGHT / 2);
-            ballVelY += hitPosition * 2; // Add spin
-            
-            // Speed up slightly
-            ballVelX *= 1.05;
-            ballVelY *= 1.05;
+        try {
+            if (replay == null) {
+                if (recorder == null) {
+                    recorder = new PongReplay.Writer(PongReplay.newRecordingPath(), matchSeed, sim);
+                }
+                recorder.record(input);
+            }
+            if (sim.gameOver) {
+                stopRecording();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
         
-        // Limit ball speed
-        double maxSpeed = 8.0;
-        if (Math.abs(ballVelX) > maxSpeed) {
-            ballVelX = ballVelX > 0 ? maxSpeed : -maxSpeed;
-        }
-        if (Math.abs(ballVelY) > maxSpeed) {
-            ballVelY = ballVelY > 0 ? maxSpeed : -maxSpeed;
+        // Don't interpolate the jump back to the center after a point
+        if (sim.player1Score + sim.player2Score != pointsBefore) {
+            prevBallX = sim.ballX;
+            prevBallY = sim.ballY;
         }
     }
     
-    private void checkScoring() {
-        // Player 2 scores (ball went off left side)
-        if (ballX < 0) {
-            player2Score++;
-            resetBall(false); // Ball starts going toward player 1
+    private void updateNetwork() {
+        // Either set of keys moves our own paddle; the session predicts the other one
+        int input = 0;
+        if ((keyInput & (PongSimulation.P1_UP | PongSimulation.P2_UP)) != 0) input |= PongNetSession.UP;
+        if ((keyInput & (PongSimulation.P1_DOWN | PongSimulation.P2_DOWN)) != 0) input |= PongNetSession.DOWN;
+        
+        int pointsBefore = sim.player1Score + sim.player2Score;
+        try {
+            netSession.advance(input);
+            // Once the match is recorded to its end the game stays over, so no new recording starts
+            if (netSession.isConnected() && (recorder != null || !sim.gameOver)) {
+                if (recorder == null) {
+                    recorder = new PongReplay.Writer(PongReplay.newRecordingPath(), netSession.seed(), sim);
+                }
+                if (netSession.recordConfirmed(recorder)) {
+                    stopRecording();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        gameStarted = netSession.isConnected();
         
-        // Player 1 scores (ball went off right side)
-        if (ballX > WINDOW_WIDTH) {
-            player1Score++;
-            resetBall(true); // Ball starts going toward player 2
+        // Don't interpolate the jump back to the center after a point
+        if (sim.player1Score + sim.player2Score != pointsBefore) {
+            prevBallX = sim.ballX;
+            prevBallY = sim.ballY;
         }
     }
     
-    private void resetBall(boolean towardPlayer2) {
-        ballX = WINDOW_WIDTH / 2;
-        ballY = WINDOW_HEIGHT / 2;
-        ballVelX = towardPlayer2 ? INITIAL_BALL_SPEED : -INITIAL_BALL_SPEED;
-        ballVelY = (Math.random() - 0.5) * 4; // Random Y velocity
-    }
-    
     private void restart() {
-        player1Score = 0;
-        player2Score = 0;
         gameStarted = false;
-        gameOver = false;
-        player1Y = WINDOW_HEIGHT / 2 - PADDLE_HEIGHT / 2;
-        player2Y = WINDOW_HEIGHT / 2 - PADDLE_HEIGHT / 2;
-        resetBall(Math.random() > 0.5);
+        stopRecording();
+        matchSeed = System.nanoTime();
+        sim.restart(matchSeed);
+        savePreviousPositions();
     }
     
-    private void draw(GraphicsContext gc) {
-        // Clear screen with black background
+    private void stopRecording() {
+        if (recorder == null) return;
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        recorder = null;
+    }
+    
+    private void drawBackground(GraphicsContext gc) {
+        // Black background
         gc.setFill(Color.BLACK);
         gc.fillRect(0, 0, WINDOW_WIDTH, WINDOW_HEIGHT);
         
@@ -270,47 +329,153 @@ public class Pong extends Application {
         gc.setLineWidth(2);
         gc.setLineDashes(10, 10);
         gc.strokeLine(WINDOW_WIDTH / 2, 0, WINDOW_WIDTH / 2, WINDOW_HEIGHT);
-        gc.setLineDashes(null); // Reset line dashes
+    }
+    
+    private void draw(double alpha) {
+        drawPlayfield(alpha);
+        
+        if (sim.player1Score != hudPlayer1Score || sim.player2Score != hudPlayer2Score ||
+            gameStarted != hudGameStarted || sim.gameOver != hudGameOver || cpu != hudCpu ||
+            sim.chaosBallCount != hudChaosBalls) {
+            drawHud(hudGc);
+            hudPlayer1Score = sim.player1Score;
+            hudPlayer2Score = sim.player2Score;
+            hudGameStarted = gameStarted;
+            hudGameOver = sim.gameOver;
+            hudCpu = cpu;
+            hudChaosBalls = sim.chaosBallCount;
+        }
+    }
+    
+    private void drawPlayfield(double alpha) {
+        double player1Y = prevPlayer1Y + (sim.player1Y - prevPlayer1Y) * alpha;
+        double player2Y = prevPlayer2Y + (sim.player2Y - prevPlayer2Y) * alpha;
+        double ballX = Double.NaN;
+        double ballY = Double.NaN;
+        if (gameStarted && !sim.gameOver) {
+            ballX = prevBallX + (sim.ballX - prevBallX) * alpha;
+            ballY = prevBallY + (sim.ballY - prevBallY) * alpha;
+        }
+        
+        // With thousands of balls moving, one clear of the whole layer beats erasing each one
+        if (sim.chaosBalls != null || chaosDrawn) {
+            playGc.clearRect(0, 0, WINDOW_WIDTH, WINDOW_HEIGHT);
+            drawnPlayer1Y = Double.NaN;
+            drawnPlayer2Y = Double.NaN;
+            drawnBallX = Double.NaN;
+            drawnBallY = Double.NaN;
+            chaosDrawn = false;
+            
+            if (sim.chaosBalls != null && !Double.isNaN(ballX)) {
+                PongBallStore balls = sim.chaosBalls;
+                for (int i = 0; i < balls.count; i++) {
+                    playGc.fillRect(balls.x[i], balls.y[i], BALL_SIZE, BALL_SIZE);
+                }
+                chaosDrawn = true;
+            }
+        }
+        
+        boolean player1Moved = !same(player1Y, drawnPlayer1Y);
+        boolean player2Moved = !same(player2Y, drawnPlayer2Y);
+        boolean ballMoved = !same(ballX, drawnBallX) || !same(ballY, drawnBallY);
+        if (!player1Moved && !player2Moved && !ballMoved) return;
+        
+        // Erase whatever moved from where it was drawn last frame
+        if (player1Moved) eraseRect(0, drawnPlayer1Y, PADDLE_WIDTH, PADDLE_HEIGHT);
+        if (player2Moved) eraseRect(WINDOW_WIDTH - PADDLE_WIDTH, drawnPlayer2Y, PADDLE_WIDTH, PADDLE_HEIGHT);
+        if (ballMoved) eraseRect(drawnBallX, drawnBallY, BALL_SIZE, BALL_SIZE);
+        
+        // An erased ball can take a bite out of a paddle it was touching (and vice versa),
+        // so also redraw anything that overlaps what was erased
+        boolean ballNearPlayer1 = overlaps(drawnBallX, drawnBallY, 0, drawnPlayer1Y) ||
+                                  overlaps(ballX, ballY, 0, drawnPlayer1Y);
+        boolean ballNearPlayer2 = overlaps(drawnBallX, drawnBallY, WINDOW_WIDTH - PADDLE_WIDTH, drawnPlayer2Y) ||
+                                  overlaps(ballX, ballY, WINDOW_WIDTH - PADDLE_WIDTH, drawnPlayer2Y);
         
         // Draw paddles
-        gc.setFill(Color.WHITE);
-        gc.fillRect(0, player1Y, PADDLE_WIDTH, PADDLE_HEIGHT); // Player 1 paddle
-        gc.fillRect(WINDOW_WIDTH - PADDLE_WIDTH, player2Y, PADDLE_WIDTH, PADDLE_HEIGHT); // Player 2 paddle
+        if (player1Moved || ballNearPlayer1) {
+            playGc.fillRect(0, player1Y, PADDLE_WIDTH, PADDLE_HEIGHT); // Player 1 paddle
+        }
+        if (player2Moved || ballNearPlayer2) {
+            playGc.fillRect(WINDOW_WIDTH - PADDLE_WIDTH, player2Y, PADDLE_WIDTH, PADDLE_HEIGHT); // Player 2 paddle
+        }
         
         // Draw ball
-        if (gameStarted && !gameOver) {
-            gc.fillRect(ballX, ballY, BALL_SIZE, BALL_SIZE);
+        if (!Double.isNaN(ballX) &&
+            (ballMoved || (player1Moved && ballNearPlayer1) || (player2Moved && ballNearPlayer2))) {
+            playGc.fillRect(ballX, ballY, BALL_SIZE, BALL_SIZE);
         }
         
+        drawnPlayer1Y = player1Y;
+        drawnPlayer2Y = player2Y;
+        drawnBallX = ballX;
+        drawnBallY = ballY;
+    }
+    
+    private static boolean same(double a, double b) {
+        return a == b || (Double.isNaN(a) && Double.isNaN(b));
+    }
+    
+    // Clears a drawn rectangle, padded to catch antialiased edges at fractional positions
+    private void eraseRect(double x, double y, double width, double height) {
+        if (Double.isNaN(x) || Double.isNaN(y)) return;
+        playGc.clearRect(x - 1, y - 1, width + 2, height + 2);
+    }
+    
+    private static boolean overlaps(double ballX, double ballY, double paddleX, double paddleY) {
+        return ballX - 1 < paddleX + PADDLE_WIDTH + 1 && ballX + BALL_SIZE + 1 > paddleX - 1 &&
+               ballY - 1 < paddleY + PADDLE_HEIGHT + 1 && ballY + BALL_SIZE + 1 > paddleY - 1;
+    }
+    
+    private void drawHud(GraphicsContext gc) {
+        gc.clearRect(0, 0, WINDOW_WIDTH, WINDOW_HEIGHT);
+        gc.setFill(Color.WHITE);
+        
         // Draw scores
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 48));
+        gc.setFont(scoreFont);
         gc.setTextAlign(TextAlignment.CENTER);
-        gc.fillText(String.valueOf(player1Score), WINDOW_WIDTH / 4, 60);
-        gc.fillText(String.valueOf(player2Score), 3 * WINDOW_WIDTH / 4, 60);
+        gc.fillText(String.valueOf(sim.player1Score), WINDOW_WIDTH / 4, 60);
+        gc.fillText(String.valueOf(sim.player2Score), 3 * WINDOW_WIDTH / 4, 60);
         
         // Draw game state messages
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 24));
-        
-        if (!gameStarted && !gameOver) {
+        if (netSession != null && !gameStarted) {
+            gc.setFont(titleFont);
+            gc.fillText("PONG", WINDOW_WIDTH / 2, WINDOW_HEIGHT / 2 - 60);
+            gc.setFont(instructionFont);
+            gc.fillText("You are Player " + netSession.localPlayer + " (W/S or UP/DOWN)", WINDOW_WIDTH / 2, WINDOW_HEIGHT / 2 - 20);
+            gc.fillText("Waiting for the other player...", WINDOW_WIDTH / 2, WINDOW_HEIGHT / 2 + 20);
+        } else if (!gameStarted && !sim.gameOver) {
+            gc.setFont(titleFont);
             gc.fillText("PONG", WINDOW_WIDTH / 2, WINDOW_HEIGHT / 2 - 60);
-            gc.setFont(Font.font("Arial", 16));
+            gc.setFont(instructionFont);
             gc.fillText("Player 1: W/S keys", WINDOW_WIDTH / 2, WINDOW_HEIGHT / 2 - 20);
-            gc.fillText("Player 2: UP/DOWN arrows", WINDOW_WIDTH / 2, WINDOW_HEIGHT / 2);
+            if (cpu == null) {
+                gc.fillText("Player 2: UP/DOWN arrows (C for CPU)", WINDOW_WIDTH / 2, WINDOW_HEIGHT / 2);
+            } else {
+                gc.fillText("Player 2: CPU, " + cpu.difficulty.name().toLowerCase() + " (C to change)", WINDOW_WIDTH / 2, WINDOW_HEIGHT / 2);
+            }
             gc.fillText("Press SPACE to start", WINDOW_WIDTH / 2, WINDOW_HEIGHT / 2 + 40);
-            gc.fillText("First to " + WINNING_SCORE + " wins!", WINDOW_WIDTH / 2, WINDOW_HEIGHT / 2 + 80);
+            gc.fillText("First to " + sim.winningScore + " wins!", WINDOW_WIDTH / 2, WINDOW_HEIGHT / 2 + 80);
+            if (sim.chaosBallCount == 0) {
+                gc.fillText("Press M for chaos mode", WINDOW_WIDTH / 2, WINDOW_HEIGHT / 2 + 120);
+            } else {
+                gc.fillText("Chaos mode: " + sim.chaosBallCount + " extra balls (M to change)", WINDOW_WIDTH / 2, WINDOW_HEIGHT / 2 + 120);
+            }
         }
         
-        if (gameOver) {
-            String winner = player1Score >= WINNING_SCORE ? "Player 1 Wins!" : "Player 2 Wins!";
-            gc.setFont(Font.font("Arial", FontWeight.BOLD, 36));
+        if (sim.gameOver) {
+            String winner = sim.player1Score >= sim.winningScore ? "Player 1 Wins!" : "Player 2 Wins!";
+            gc.setFont(winnerFont);
             gc.fillText(winner, WINDOW_WIDTH / 2, WINDOW_HEIGHT / 2 - 20);
-            gc.setFont(Font.font("Arial", 18));
-            gc.fillText("Press R to restart", WINDOW_WIDTH / 2, WINDOW_HEIGHT / 2 + 20);
+            if (netSession == null) {
+                gc.setFont(restartFont);
+                gc.fillText("Press R to restart", WINDOW_WIDTH / 2, WINDOW_HEIGHT / 2 + 20);
+            }
         }
         
         // Draw controls reminder
-        if (gameStarted && !gameOver) {
-            gc.setFont(Font.font("Arial", 12));
+        if (netSession == null && gameStarted && !sim.gameOver) {
+            gc.setFont(reminderFont);
             gc.fillText("ESC to pause", WINDOW_WIDTH / 2, WINDOW_HEIGHT - 20);
         }
     }
@@ -0,0 +1,94 @@
+import java.util.SplittableRandom;
+
+// A computer-controlled paddle. Rather than simulating ahead every tick, it works out where
+// the ball will cross its paddle once, whenever the ball changes direction (a paddle hit or
+// a serve), by unfolding the bounces off the top and bottom walls. Every other tick it just
+// steers toward that spot, so each tick costs the same no matter how long the rally is.
+class PongAI {
+    enum Difficulty {
+        EASY(30, 90),
+        NORMAL(15, 70),
+        HARD(6, 62);
+        
+        final int reactionTicks; // How long it takes to react to the ball changing direction
+        final double maxError; // How far off (in pixels, either way) it may aim; over 60 can miss
+        
+        Difficulty(int reactionTicks, double maxError) {
+            this.reactionTicks = reactionTicks;
+            this.maxError = maxError;
+        }
+        
+        Difficulty next() {
+            return values()[(ordinal() + 1) % values().length];
+        }
+    }
+    
+    final Difficulty difficulty;
+    private final boolean rightSide;
+    private final SplittableRandom random;
+    
+    // What the ball was doing when we last made a prediction
+    private double lastBallVelX = 0;
+    private int lastPoints = -1;
+    
+    private double targetY = PongSimulation.COURT_HEIGHT / 2;
+    private int reactionLeft = 0;
+    
+    PongAI(boolean rightSide, Difficulty difficulty, long seed) {
+        this.rightSide = rightSide;
+        this.difficulty = difficulty;
+        this.random = new SplittableRandom(seed);
+    }
+    
+    // Input bits (P1_ or P2_, depending on the side) for this tick
+    int input(PongSimulation sim) {
+        int points = sim.player1Score + sim.player2Score;
+        if (points != lastPoints || Math.signum(sim.ballVelX) != Math.signum(lastBallVelX)) {
+            lastPoints = points;
+            lastBallVelX = sim.ballVelX;
+            predict(sim);
+        }
+        
+        if (reactionLeft > 0) {
+            reactionLeft--;
+            return 0;
+        }
+        
+        double paddleY = rightSide ? sim.player2Y : sim.player1Y;
+        double paddleCenter = paddleY + PongSimulation.PADDLE_HEIGHT / 2;
+        double deadZone = sim.paddleSpeed; // Close enough; don't jitter around the target
+        if (targetY < paddleCenter - deadZone) {
+            return rightSide ? PongSimulation.P2_UP : PongSimulation.P1_UP;
+        }
+        if (targetY > paddleCenter + deadZone) {
+            return rightSide ? PongSimulation.P2_DOWN : PongSimulation.P1_DOWN;
+        }
+        return 0;
+    }
+    
+    private void predict(PongSimulation sim) {
+        reactionLeft = difficulty.reactionTicks;
+        
+        boolean comingTowardUs = rightSide ? sim.ballVelX > 0 : sim.ballVelX < 0;
+        if (!comingTowardUs) {
+            // Drift back to the middle while the other player deals with it
+            targetY = PongSimulation.COURT_HEIGHT / 2;
+            return;
+        }
+        
+        // How far the ball travels vertically before reaching our paddle's face
+        double faceX = rightSide ? PongSimulation.COURT_WIDTH - PongSimulation.PADDLE_WIDTH - PongSimulation.BALL_SIZE
+                                 : PongSimulation.PADDLE_WIDTH;
+        double frames = (faceX - sim.ballX) / sim.ballVelX;
+        double y = sim.ballY + sim.ballVelY * frames;
+        
+        // Fold that straight line back into the court: each wall bounce mirrors it
+        double range = PongSimulation.COURT_HEIGHT - PongSimulation.BALL_SIZE;
+        double folded = y % (2 * range);
+        if (folded < 0) folded += 2 * range;
+        if (folded > range) folded = 2 * range - folded;
+        
+        double error = (random.nextDouble() * 2 - 1) * difficulty.maxError;
+        targetY = folded + PongSimulation.BALL_SIZE / 2 + error;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+// The extra balls of Pong's chaos mode, served and swept by PongSimulation just like the main
+// ball. Adding past the capacity is a bug, so it throws; copyFrom() lets a simulation snapshot
+// its balls for the network session's rollback.
+class PongBallStore {
+    final double[] x;
+    final double[] y;
+    final double[] velX;
+    final double[] velY;
+    int count = 0;
+    
+    PongBallStore(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        velX = new double[capacity];
+        velY = new double[capacity];
+    }
+    
+    int capacity() {
+        return x.length;
+    }
+    
+    void add(double ballX, double ballY, double ballVelX, double ballVelY) {
+        if (count == x.length) {
+            throw new IllegalStateException("Ball store is full (" + count + " balls)");
+        }
+        x[count] = ballX;
+        y[count] = ballY;
+        velX[count] = ballVelX;
+        velY[count] = ballVelY;
+        count++;
+    }
+    
+    void clear() {
+        count = 0;
+    }
+    
+    void copyFrom(PongBallStore other) {
+        System.arraycopy(other.x, 0, x, 0, other.count);
+        System.arraycopy(other.y, 0, y, 0, other.count);
+        System.arraycopy(other.velX, 0, velX, 0, other.count);
+        System.arraycopy(other.velY, 0, velY, 0, other.count);
+        count = other.count;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,255 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+// Two-player network Pong. Each peer simulates the whole match and only sends its own
+// paddle input over UDP, one small frame per tick. The local input is applied at once and
+// the remote one is predicted (assumed unchanged); when the real remote input arrives and
+// differs, the simulation rolls back to that tick and re-simulates, so the local paddle
+// never waits on the network.
+//
+// Player 1 picks the random seed and sends it in every packet, so both peers serve alike.
+class PongNetSession implements Closeable {
+    // Ticks of input and state kept for rollback (about 2 seconds)
+    private static final int HISTORY = 256;
+    // How far we may run ahead of the last confirmed remote input before waiting for it
+    private static final int MAX_PREDICTION = 60;
+    private static final int MAGIC = 0x504F4E47; // "PONG"
+    private static final int MAX_PACKET = 64 + HISTORY;
+    
+    // Input bits on the wire, relative to the sender's own paddle
+    static final int UP = 1;
+    static final int DOWN = 2;
+    
+    final int localPlayer;
+    private final PongSimulation sim;
+    private final DatagramChannel channel;
+    private final SocketAddress peer;
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(MAX_PACKET);
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(MAX_PACKET);
+    
+    // Inputs and the state at the start of each tick, indexed by tick % HISTORY
+    private final byte[] localInputs = new byte[HISTORY];
+    private final byte[] remoteInputs = new byte[HISTORY];
+    private final byte[] usedRemoteInputs = new byte[HISTORY]; // What was actually simulated (maybe predicted)
+    private final PongSimulation[] snapshots = new PongSimulation[HISTORY];
+    
+    private long seed;
+    private boolean connected = false;
+    private int tick = 0; // Next tick to simulate
+    private int remoteConfirmed = -1; // Remote inputs are known up to and including this tick
+    private int remoteAcked = -1; // The peer has our inputs up to and including this tick
+    private int rollbackFrom = Integer.MAX_VALUE; // Earliest tick that was simulated with a wrong prediction
+    private int recordedTicks = 0;
+    
+    PongNetSession(PongSimulation sim, int localPlayer, int localPort, SocketAddress peer) throws IOException {
+        if (localPlayer != 1 && localPlayer != 2) {
+            throw new IllegalArgumentException("Player must be 1 or 2, not " + localPlayer);
+        }
+        this.sim = sim;
+        this.localPlayer = localPlayer;
+        this.peer = peer;
+        this.seed = localPlayer == 1 ? System.nanoTime() : 0;
+        for (int i = 0; i < HISTORY; i++) {
+            snapshots[i] = new PongSimulation(0, sim.paddleSpeed, sim.spinFactor, sim.initialBallSpeed);
+        }
+        
+        channel = DatagramChannel.open();
+        channel.configureBlocking(false);
+        channel.bind(new InetSocketAddress(localPort));
+    }
+    
+    boolean isConnected() {
+        return connected;
+    }
+    
+    // The seed both peers restarted from once connected
+    long seed() {
+        return seed;
+    }
+    
+    // Records the inputs of every tick that can no longer be rolled back, up to the end of the
+    // match. Returns whether the match is over and all of it recorded.
+    boolean recordConfirmed(PongReplay.Writer recorder) throws IOException {
+        int confirmed = Math.min(remoteConfirmed + 1, tick);
+        for (; recordedTicks < confirmed && !recordedGameOver(); recordedTicks++) {
+            int slot = recordedTicks % HISTORY;
+            int local = localInputs[slot];
+            int remote = remoteInputs[slot];
+            recorder.record(localPlayer == 1 ? toSimInput(local, remote) : toSimInput(remote, local));
+        }
+        return recordedGameOver();
+    }
+    
+    // Whether the ticks recorded so far end the match. They were all simulated with confirmed
+    // inputs, so no rollback can take that back.
+    private boolean recordedGameOver() {
+        return recordedTicks < tick ? snapshots[recordedTicks % HISTORY].gameOver : sim.gameOver;
+    }
+    
+    // Runs one tick with the local player's UP/DOWN bits. Returns false if the tick had to be
+    // skipped, either because the peer hasn't shown up yet or because we're too far ahead of it.
+    boolean advance(int localInput) throws IOException {
+        receive();
+        if (!connected) {
+            send();
+            return false;
+        }
+        
+        // Fix up any ticks that were simulated with a wrong guess of the remote input
+        if (rollbackFrom < tick) {
+            sim.copyFrom(snapshots[rollbackFrom % HISTORY]);
+            for (int t = rollbackFrom; t < tick; t++) {
+                simulate(t);
+            }
+        }
+        rollbackFrom = Integer.MAX_VALUE;
+        
+        if (tick - remoteConfirmed > MAX_PREDICTION) {
+            send();
+            return false;
+        }
+        
+        localInputs[tick % HISTORY] = (byte) localInput;
+        simulate(tick);
+        tick++;
+        send();
+        return true;
+    }
+    
+    private void simulate(int t) {
+        int slot = t % HISTORY;
+        
+        // Use the real remote input if we have it, otherwise assume it hasn't changed
+        int remote = 0;
+        if (t <= remoteConfirmed) {
+            remote = remoteInputs[slot];
+        } else if (remoteConfirmed >= 0) {
+            remote = remoteInputs[remoteConfirmed % HISTORY];
+        }
+        usedRemoteInputs[slot] = (byte) remote;
+        
+        snapshots[slot].copyFrom(sim);
+        int local = localInputs[slot];
+        sim.step(localPlayer == 1 ? toSimInput(local, remote) : toSimInput(remote, local));
+    }
+    
+    private static int toSimInput(int player1, int player2) {
+        int input = 0;
+        if ((player1 & UP) != 0) input |= PongSimulation.P1_UP;
+        if ((player1 & DOWN) != 0) input |= PongSimulation.P1_DOWN;
+        if ((player2 & UP) != 0) input |= PongSimulation.P2_UP;
+        if ((player2 & DOWN) != 0) input |= PongSimulation.P2_DOWN;
+        return input;
+    }
+    
+    // Packet: magic, seed, last remote tick we have, first tick in this packet, count, inputs.
+    // Every packet resends all inputs the peer hasn't acknowledged, so lost packets don't matter.
+    private void send() throws IOException {
+        if (localPlayer == 2 && seed == 0) return; // Nothing to say until player 1 has told us the seed
+        
+        int first = Math.max(remoteAcked + 1, tick - HISTORY + 1);
+        int count = Math.min(tick - first, 255);
+        sendBuffer.clear();
+        sendBuffer.putInt(MAGIC);
+        sendBuffer.putLong(seed);
+        sendBuffer.putInt(remoteConfirmed);
+        sendBuffer.putInt(first);
+        sendBuffer.put((byte) count);
+        for (int t = first; t < first + count; t++) {
+            sendBuffer.put(localInputs[t % HISTORY]);
+        }
+        sendBuffer.flip();
+        channel.send(sendBuffer, peer);
+    }
+    
+    private void receive() throws IOException {
+        while (true) {
+            receiveBuffer.clear();
+            if (channel.receive(receiveBuffer) == null) return;
+            receiveBuffer.flip();
+            if (receiveBuffer.remaining() < 21 || receiveBuffer.getInt() != MAGIC) continue;
+            
+            long packetSeed = receiveBuffer.getLong();
+            int ack = receiveBuffer.getInt();
+            int first = receiveBuffer.getInt();
+            int count = receiveBuffer.get() & 0xFF;
+            if (receiveBuffer.remaining() < count) continue;
+            
+            if (!connected) {
+                if (localPlayer == 2) {
+                    seed = packetSeed;
+                } else if (packetSeed != seed) {
+                    continue; // Player 2 hasn't picked up our seed yet
+                }
+                sim.restart(seed);
+                connected = true;
+            }
+            remoteAcked = Math.max(remoteAcked, ack);
+            
+            for (int i = 0; i < count; i++) {
+                int t = first + i;
+                byte input = receiveBuffer.get();
+                
+                // Only take inputs in order; anything after a gap is resent later
+                if (t != remoteConfirmed + 1) continue;
+                remoteInputs[t % HISTORY] = input;
+                remoteConfirmed = t;
+                
+                if (t < tick && usedRemoteInputs[t % HISTORY] != input) {
+                    rollbackFrom = Math.min(rollbackFrom, t);
+                }
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    // Loopback check: plays two bot peers against each other on localhost, with the second
+    // peer stalling now and then to force rollbacks, and verifies both end in the same state.
+    public static void main(String[] args) throws Exception {
+        InetSocketAddress address1 = new InetSocketAddress("127.0.0.1", 47001);
+        InetSocketAddress address2 = new InetSocketAddress("127.0.0.1", 47002);
+        PongSimulation sim1 = new PongSimulation();
+        PongSimulation sim2 = new PongSimulation();
+        java.util.Random lag = new java.util.Random(1);
+        
+        try (PongNetSession peer1 = new PongNetSession(sim1, 1, address1.getPort(), address2);
+             PongNetSession peer2 = new PongNetSession(sim2, 2, address2.getPort(), address1)) {
+            int settle = 0;
+            while (settle < MAX_PREDICTION * 4) {
+                peer1.advance(botInput(sim1, 1));
+                if (lag.nextInt(4) != 0) {
+                    peer2.advance(botInput(sim2, 2));
+                }
+                if (sim1.gameOver && sim2.gameOver) {
+                    settle++;
+                }
+            }
+            
+            boolean same = sim1.player1Score == sim2.player1Score && sim1.player2Score == sim2.player2Score &&
+                           sim1.ballX == sim2.ballX && sim1.ballY == sim2.ballY &&
+                           sim1.player1Y == sim2.player1Y && sim1.player2Y == sim2.player2Y;
+            System.out.printf("Peer 1: %d-%d  Peer 2: %d-%d  after %d / %d ticks%n",
+                    sim1.player1Score, sim1.player2Score, sim2.player1Score, sim2.player2Score,
+                    peer1.tick, peer2.tick);
+            System.out.println(same ? "Peers agree" : "PEERS DESYNCED");
+            if (!same) System.exit(1);
+        }
+    }
+    
+    private static int botInput(PongSimulation sim, int player) {
+        double paddleY = player == 1 ? sim.player1Y : sim.player2Y;
+        double target = sim.ballY + PongSimulation.BALL_SIZE / 2;
+        double center = paddleY + PongSimulation.PADDLE_HEIGHT / 2;
+        if (target < center - 10) return UP;
+        if (target > center + 10) return DOWN;
+        return 0;
+    }
+}
\ No newline at end of file
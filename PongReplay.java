@@ -0,0 +1,176 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// A recorded Pong match. Since PongSimulation is deterministic, a match is fully described by
+// its seed, its tuning and the input bits of every tick, which compress very well because
+// keys are held for many ticks at a time.
+//
+// File layout: magic, version, seed, paddle speed, spin factor, serve speed, chaos ball count, then runs of
+// (input byte, run length as a varint) until the end of the file.
+//
+// Usage: java PongReplay <file>...   re-simulates each replay headless as fast as possible
+class PongReplay {
+    private static final int MAGIC = 0x50524C59; // "PRLY"
+    private static final byte VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 1 + 8 + 8 * 3 + 4;
+    
+    final long seed;
+    final double paddleSpeed;
+    final double spinFactor;
+    final double initialBallSpeed;
+    final int chaosBalls;
+    
+    private final ByteBuffer runs;
+    private int runInput = 0;
+    private int runLeft = 0;
+    
+    private PongReplay(ByteBuffer data) {
+        seed = data.getLong();
+        paddleSpeed = data.getDouble();
+        spinFactor = data.getDouble();
+        initialBallSpeed = data.getDouble();
+        chaosBalls = data.getInt();
+        runs = data;
+    }
+    
+    static PongReplay load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer data = ByteBuffer.allocate((int) channel.size());
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+                // Keep reading until the whole file is in
+            }
+            data.flip();
+            if (data.remaining() < HEADER_SIZE || data.getInt() != MAGIC || data.get() != VERSION) {
+                throw new IOException("Not a Pong replay: " + path);
+            }
+            return new PongReplay(data);
+        }
+    }
+    
+    // A simulation in the state the recorded match started from
+    PongSimulation newSimulation() {
+        PongSimulation sim = new PongSimulation(seed, paddleSpeed, spinFactor, initialBallSpeed);
+        sim.setChaosBalls(chaosBalls);
+        sim.restart(seed);
+        return sim;
+    }
+    
+    boolean hasNext() {
+        return runLeft > 0 || runs.hasRemaining();
+    }
+    
+    // Input bits for the next tick
+    int next() {
+        if (runLeft == 0) {
+            runInput = runs.get();
+            runLeft = readVarInt(runs);
+        }
+        runLeft--;
+        return runInput;
+    }
+    
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+    
+    // Records a match as it's played, one input per tick, through a buffered file channel
+    static class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(8192);
+        private int runInput = 0;
+        private int runLength = 0;
+        
+        // seed must be the one the simulation was last restarted with
+        Writer(Path path, long seed, PongSimulation sim) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                       StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.putInt(MAGIC);
+            buffer.put(VERSION);
+            buffer.putLong(seed);
+            buffer.putDouble(sim.paddleSpeed);
+            buffer.putDouble(sim.spinFactor);
+            buffer.putDouble(sim.initialBallSpeed);
+            buffer.putInt(sim.chaosBallCount);
+        }
+        
+        void record(int input) throws IOException {
+            if (runLength > 0 && input == runInput) {
+                runLength++;
+                return;
+            }
+            writeRun();
+            runInput = input;
+            runLength = 1;
+        }
+        
+        private void writeRun() throws IOException {
+            if (runLength == 0) return;
+            if (buffer.remaining() < 6) {
+                drain();
+            }
+            buffer.put((byte) runInput);
+            int value = runLength;
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+        
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            writeRun();
+            runLength = 0;
+            drain();
+            channel.close();
+        }
+    }
+    
+    // Where Pong saves recordings of its matches
+    static Path newRecordingPath() throws IOException {
+        Path dir = Paths.get("replays");
+        Files.createDirectories(dir);
+        return dir.resolve("pong-" + System.currentTimeMillis() + ".rpl");
+    }
+    
+    public static void main(String[] args) throws IOException {
+        for (String file : args) {
+            PongReplay replay = load(Paths.get(file));
+            PongSimulation sim = replay.newSimulation();
+            
+            long start = System.nanoTime();
+            long ticks = 0;
+            while (replay.hasNext()) {
+                sim.step(replay.next());
+                ticks++;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            
+            System.out.printf("%s: %d-%d%s, %d ticks (%.1f s of play) re-simulated in %.3f s (%.0f ticks/s)%n",
+                    file, sim.player1Score, sim.player2Score, sim.gameOver ? "" : " (unfinished)", ticks,
+                    (double) ticks / PongSimulation.TICKS_PER_SECOND, seconds, ticks / seconds);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,173 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Plays batches of AI-vs-AI Pong matches headless on every core and reports
+// win rates and rally lengths, for tuning the game's speeds offline.
+//
+// Usage: java PongSelfPlay [--matches N] [--threads N] [--seed N]
+//                          [--paddle-speed X] [--spin X] [--ball-speed X]
+//                          [--p1 easy|normal|hard] [--p2 easy|normal|hard] [--chaos BALLS]
+class PongSelfPlay {
+    // Matches still going after this many ticks are abandoned and counted as unfinished
+    private static final int MAX_TICKS_PER_MATCH = 1_000_000;
+    // Rallies longer than this all land in the last histogram bucket
+    private static final int MAX_RALLY = 256;
+    
+    public static void main(String[] args) throws Exception {
+        int matches = 100_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        double paddleSpeed = PongSimulation.PADDLE_SPEED;
+        double spinFactor = PongSimulation.SPIN_FACTOR;
+        double ballSpeed = PongSimulation.INITIAL_BALL_SPEED;
+        PongAI.Difficulty player1 = PongAI.Difficulty.NORMAL;
+        PongAI.Difficulty player2 = PongAI.Difficulty.NORMAL;
+        int chaosBalls = 0;
+        
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--matches":
+                    matches = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[i + 1]);
+                    break;
+                case "--paddle-speed":
+                    paddleSpeed = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--spin":
+                    spinFactor = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--ball-speed":
+                    ballSpeed = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--p1":
+                    player1 = PongAI.Difficulty.valueOf(args[i + 1].toUpperCase());
+                    break;
+                case "--p2":
+                    player2 = PongAI.Difficulty.valueOf(args[i + 1].toUpperCase());
+                    break;
+                case "--chaos":
+                    chaosBalls = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        
+        // One independent match at a time per worker, each with its own simulation and stats
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Stats>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int w = 0; w < threads; w++) {
+            int share = matches / threads + (w < matches % threads ? 1 : 0);
+            PongSimulation sim = new PongSimulation(seed + w, paddleSpeed, spinFactor, ballSpeed);
+            sim.setChaosBalls(chaosBalls);
+            PongAI ai1 = new PongAI(false, player1, seed + w + threads);
+            PongAI ai2 = new PongAI(true, player2, seed + w + 2 * threads);
+            results.add(pool.submit(() -> playMatches(sim, ai1, ai2, share)));
+        }
+        
+        Stats total = new Stats();
+        for (Future<Stats> result : results) {
+            total.add(result.get());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        
+        System.out.printf("Played %d matches in %.2f s (%.0f matches/min) on %d threads%n",
+                matches, seconds, matches / seconds * 60, threads);
+        System.out.printf("Paddle speed %.2f, spin %.2f, ball speed %.2f, %s vs %s%n",
+                paddleSpeed, spinFactor, ballSpeed, player1, player2);
+        System.out.printf("Player 1 wins: %.2f%%  Player 2 wins: %.2f%%  Unfinished: %d%n",
+                100.0 * total.player1Wins / matches, 100.0 * total.player2Wins / matches, total.unfinished);
+        System.out.printf("Ticks per match: %.0f (%.0f ticks/s per thread)%n",
+                (double) total.ticks / matches, total.ticks / seconds / threads);
+        System.out.printf("Rally length (paddle hits per point): mean %.2f, p50 %d, p90 %d, p99 %d, max %d%n",
+                total.meanRally(), total.rallyPercentile(0.50), total.rallyPercentile(0.90),
+                total.rallyPercentile(0.99), total.longestRally);
+    }
+    
+    private static Stats playMatches(PongSimulation sim, PongAI ai1, PongAI ai2, int matches) {
+        Stats stats = new Stats();
+        for (int m = 0; m < matches; m++) {
+            sim.restart();
+            int points = 0;
+            int ticks = 0;
+            while (!sim.gameOver && ticks < MAX_TICKS_PER_MATCH) {
+                sim.step(ai1.input(sim) | ai2.input(sim));
+                ticks++;
+                
+                // Record the rally each time a point is scored (only meaningful with a single ball)
+                int scored = sim.player1Score + sim.player2Score;
+                if (scored != points && sim.chaosBalls == null) {
+                    points = scored;
+                    stats.recordRally(sim.lastRallyHits);
+                }
+            }
+            
+            stats.ticks += ticks;
+            if (!sim.gameOver) {
+                stats.unfinished++;
+            } else if (sim.player1Score > sim.player2Score) {
+                stats.player1Wins++;
+            } else {
+                stats.player2Wins++;
+            }
+        }
+        return stats;
+    }
+    
+    // Results from one worker, merged at the end
+    static class Stats {
+        long player1Wins;
+        long player2Wins;
+        long unfinished;
+        long ticks;
+        long[] rallyCounts = new long[MAX_RALLY + 1];
+        long rallies;
+        long rallyHitsTotal;
+        int longestRally;
+        
+        void recordRally(int hits) {
+            rallyCounts[Math.min(hits, MAX_RALLY)]++;
+            rallies++;
+            rallyHitsTotal += hits;
+            longestRally = Math.max(longestRally, hits);
+        }
+        
+        void add(Stats other) {
+            player1Wins += other.player1Wins;
+            player2Wins += other.player2Wins;
+            unfinished += other.unfinished;
+            ticks += other.ticks;
+            for (int i = 0; i <= MAX_RALLY; i++) {
+                rallyCounts[i] += other.rallyCounts[i];
+            }
+            rallies += other.rallies;
+            rallyHitsTotal += other.rallyHitsTotal;
+            longestRally = Math.max(longestRally, other.longestRally);
+        }
+        
+        double meanRally() {
+            return rallies == 0 ? 0 : (double) rallyHitsTotal / rallies;
+        }
+        
+        int rallyPercentile(double p) {
+            if (rallies == 0) return 0;
+            long target = (long) Math.ceil(p * rallies);
+            long seen = 0;
+            for (int i = 0; i <= MAX_RALLY; i++) {
+                seen += rallyCounts[i];
+                if (seen >= target && seen > 0) return i;
+            }
+            return MAX_RALLY;
+        }
+    }
+}
\ No newline at end of file
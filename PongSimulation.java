@@ -0,0 +1,379 @@
+// The rules of Pong with no JavaFX dependencies, so matches can run without a Stage.
+// Pong drives one of these from its game loop; PongSelfPlay runs thousands of them headless.
+class PongSimulation {
+    static final int COURT_WIDTH = 800;
+    static final int COURT_HEIGHT = 600;
+    static final int PADDLE_WIDTH = 20;
+    static final int PADDLE_HEIGHT = 100;
+    static final int BALL_SIZE = 20;
+    static final int WINNING_SCORE = 10;
+    static final double PADDLE_SPEED = 5.0;
+    static final double SPIN_FACTOR = 2.0;
+    static final double INITIAL_BALL_SPEED = 3.0;
+    static final double MAX_BALL_SPEED = 8.0;
+    
+    // Fixed timestep: one step() is one tick at this rate
+    static final int TICKS_PER_SECOND = 120;
+    // Speeds were tuned per 60 fps frame, so scale them down to a single tick
+    private static final double TICK_SCALE = 60.0 / TICKS_PER_SECOND;
+    
+    // Input bits passed to step()
+    static final int P1_UP = 1;
+    static final int P1_DOWN = 2;
+    static final int P2_UP = 4;
+    static final int P2_DOWN = 8;
+    
+    // Ball collision sweep
+    private static final int MAX_HITS_PER_TICK = 4;
+    private static final int NO_HIT = 0;
+    private static final int WALL_HIT = 1;
+    private static final int LEFT_PADDLE_HIT = 2;
+    private static final int RIGHT_PADDLE_HIT = 3;
+    
+    // Tuning
+    final double paddleSpeed;
+    final double spinFactor;
+    final double initialBallSpeed;
+    
+    // Game objects
+    double player1Y = COURT_HEIGHT / 2 - PADDLE_HEIGHT / 2;
+    double player2Y = COURT_HEIGHT / 2 - PADDLE_HEIGHT / 2;
+    double ballX = COURT_WIDTH / 2;
+    double ballY = COURT_HEIGHT / 2;
+    double ballVelX;
+    double ballVelY;
+    
+    // Game state
+    int player1Score = 0;
+    int player2Score = 0;
+    boolean gameOver = false;
+    int rallyHits = 0; // Paddle hits since the last serve
+    int lastRallyHits = 0; // Paddle hits in the last point that was scored
+    int winningScore = WINNING_SCORE;
+    
+    // Chaos mode: lots of extra balls playing by the same rules (null when off)
+    PongBallStore chaosBalls;
+    int chaosBallCount = 0;
+    
+    // The ball sweep() is moving, the main one or a chaos ball, copied in and back out around it
+    private double sweepX;
+    private double sweepY;
+    private double sweepVelX;
+    private double sweepVelY;
+    
+    // Random number state. Everything here is deterministic (doubles are strict IEEE since
+    // Java 17), so two simulations seeded alike and fed the same inputs stay identical.
+    private long rngState;
+    
+    PongSimulation() {
+        this(System.nanoTime());
+    }
+    
+    PongSimulation(long seed) {
+        this(seed, PADDLE_SPEED, SPIN_FACTOR, INITIAL_BALL_SPEED);
+    }
+    
+    PongSimulation(long seed, double paddleSpeed, double spinFactor, double initialBallSpeed) {
+        this.paddleSpeed = paddleSpeed;
+        this.spinFactor = spinFactor;
+        this.initialBallSpeed = initialBallSpeed;
+        this.rngState = seed;
+        ballVelX = initialBallSpeed;
+        ballVelY = initialBallSpeed;
+    }
+    
+    // Advances the game by one tick with the given P1_/P2_ input bits held
+    void step(int input) {
+        if (gameOver) return;
+        
+        // Update paddles
+        updatePaddles(input);
+        
+        // Update ball
+        updateBall();
+        
+        // Check for scoring
+        checkScoring();
+        
+        if (chaosBalls != null) {
+            updateChaosBalls();
+        }
+        
+        // Check for game over
+        if (player1Score >= winningScore || player2Score >= winningScore) {
+            gameOver = true;
+        }
+    }
+    
+    // Restarts from the given random seed; simulations restarted from the same seed play the same match
+    void restart(long seed) {
+        rngState = seed;
+        restart();
+    }
+    
+    void restart() {
+        player1Score = 0;
+        player2Score = 0;
+        gameOver = false;
+        lastRallyHits = 0;
+        player1Y = COURT_HEIGHT / 2 - PADDLE_HEIGHT / 2;
+        player2Y = COURT_HEIGHT / 2 - PADDLE_HEIGHT / 2;
+        resetBall(nextRandom() < 0.5);
+        
+        if (chaosBallCount > 0) {
+            if (chaosBalls == null || chaosBalls.capacity() < chaosBallCount) {
+                chaosBalls = new PongBallStore(chaosBallCount);
+            }
+            chaosBalls.clear();
+            for (int i = 0; i < chaosBallCount; i++) {
+                chaosBalls.add(0, 0, 0, 0);
+                serveChaosBall(i, nextRandom() < 0.5);
+            }
+        } else {
+            chaosBalls = null;
+        }
+    }
+    
+    // Sets how many extra balls the next restart() serves; 0 turns chaos mode off. Every ball
+    // scores, so the target grows with them to give a match about as long at any count.
+    void setChaosBalls(int count) {
+        chaosBallCount = count;
+        winningScore = (count + 1) * WINNING_SCORE;
+    }
+    
+    private void updatePaddles(int input) {
+        double move = paddleSpeed * TICK_SCALE;
+        
+        // Player 1 (left paddle)
+        if ((input & P1_UP) != 0 && player1Y > 0) {
+            player1Y -= move;
+        }
+        if ((input & P1_DOWN) != 0 && player1Y < COURT_HEIGHT - PADDLE_HEIGHT) {
+            player1Y += move;
+        }
+        
+        // Player 2 (right paddle)
+        if ((input & P2_UP) != 0 && player2Y > 0) {
+            player2Y -= move;
+        }
+        if ((input & P2_DOWN) != 0 && player2Y < COURT_HEIGHT - PADDLE_HEIGHT) {
+            player2Y += move;
+        }
+        
+        // Keep paddles in bounds
+        player1Y = Math.max(0, Math.min(COURT_HEIGHT - PADDLE_HEIGHT, player1Y));
+        player2Y = Math.max(0, Math.min(COURT_HEIGHT - PADDLE_HEIGHT, player2Y));
+    }
+    
+    private void updateBall() {
+        sweepX = ballX;
+        sweepY = ballY;
+        sweepVelX = ballVelX;
+        sweepVelY = ballVelY;
+        rallyHits += sweep();
+        ballX = sweepX;
+        ballY = sweepY;
+        ballVelX = sweepVelX;
+        ballVelY = sweepVelY;
+    }
+    
+    // Every chaos ball in one pass over the arrays, each swept just like the main ball
+    private void updateChaosBalls() {
+        double[] xs = chaosBalls.x;
+        double[] ys = chaosBalls.y;
+        double[] velXs = chaosBalls.velX;
+        double[] velYs = chaosBalls.velY;
+        
+        for (int b = 0, n = chaosBalls.count; b < n; b++) {
+            sweepX = xs[b];
+            sweepY = ys[b];
+            sweepVelX = velXs[b];
+            sweepVelY = velYs[b];
+            sweep();
+            xs[b] = sweepX;
+            ys[b] = sweepY;
+            velXs[b] = sweepVelX;
+            velYs[b] = sweepVelY;
+            
+            // Scoring works just like the main ball
+            if (sweepX < 0) {
+                player2Score++;
+                serveChaosBall(b, false);
+            } else if (sweepX > COURT_WIDTH) {
+                player1Score++;
+                serveChaosBall(b, true);
+            }
+        }
+    }
+    
+    // Sweeps the ball in the sweep slot along this tick's path and resolves each wall or paddle
+    // hit at its time of impact, so even a very fast ball can't tunnel through a paddle. Returns
+    // how many paddle hits there were.
+    private int sweep() {
+        int paddleHits = 0;
+        double remaining = 1.0;
+        for (int i = 0; i < MAX_HITS_PER_TICK && remaining > 0; i++) {
+            double dx = sweepVelX * TICK_SCALE * remaining;
+            double dy = sweepVelY * TICK_SCALE * remaining;
+            
+            // Find the earliest hit along the path, as a fraction of it
+            double hitTime = 1.0;
+            int hit = NO_HIT;
+            
+            double t = wallImpactTime(sweepY, dy);
+            if (t < hitTime) {
+                hitTime = t;
+                hit = WALL_HIT;
+            }
+            if (sweepVelX < 0) {
+                t = paddleImpactTime(sweepX - PADDLE_WIDTH, -dx, sweepY, dy, player1Y);
+                if (t < hitTime) {
+                    hitTime = t;
+                    hit = LEFT_PADDLE_HIT;
+                }
+            } else {
+                t = paddleImpactTime(COURT_WIDTH - PADDLE_WIDTH - (sweepX + BALL_SIZE), dx, sweepY, dy, player2Y);
+                if (t < hitTime) {
+                    hitTime = t;
+                    hit = RIGHT_PADDLE_HIT;
+                }
+            }
+            
+            // Move up to the hit (or the whole way if nothing was hit)
+            sweepX += dx * hitTime;
+            sweepY += dy * hitTime;
+            remaining *= 1 - hitTime;
+            
+            if (hit == NO_HIT) {
+                break;
+            } else if (hit == WALL_HIT) {
+                // Ball collision with top and bottom walls
+                sweepVelY = -sweepVelY;
+                sweepY = Math.max(0, Math.min(COURT_HEIGHT - BALL_SIZE, sweepY));
+            } else {
+                sweepX = hit == LEFT_PADDLE_HIT ? PADDLE_WIDTH : COURT_WIDTH - PADDLE_WIDTH - BALL_SIZE;
+                sweepVelY = bounceVelY(sweepVelY, sweepY, hit == LEFT_PADDLE_HIT ? player1Y : player2Y);
+                sweepVelX = bounceVelX(sweepVelX);
+                paddleHits++;
+            }
+        }
+        return paddleHits;
+    }
+    
+    // Chaos balls are served from anywhere along the center line so they don't all stack up
+    private void serveChaosBall(int b, boolean towardPlayer2) {
+        chaosBalls.x[b] = COURT_WIDTH / 2;
+        chaosBalls.y[b] = nextRandom() * (COURT_HEIGHT - BALL_SIZE);
+        chaosBalls.velX[b] = towardPlayer2 ? initialBallSpeed : -initialBallSpeed;
+        chaosBalls.velY[b] = (nextRandom() - 0.5) * 4;
+    }
+    
+    // Fraction of the path (dy) at which a ball at y reaches the top or bottom wall, or 2 if it doesn't
+    private static double wallImpactTime(double y, double dy) {
+        if (dy < 0) {
+            return impactTime(y, -dy);
+        }
+        if (dy > 0) {
+            return impactTime(COURT_HEIGHT - BALL_SIZE - y, dy);
+        }
+        return 2.0;
+    }
+    
+    // Fraction of the path at which a ball reaches a paddle's face, or 2 if it misses.
+    // gap is the distance from the ball to the face and dx the distance travelled toward it.
+    private static double paddleImpactTime(double gap, double dx, double y, double dy, double paddleY) {
+        double t = impactTime(gap, dx);
+        if (t > 1) {
+            return 2.0;
+        }
+        
+        // Only a hit if the ball overlaps the paddle vertically at that moment
+        double yAtImpact = y + dy * t;
+        if (yAtImpact + BALL_SIZE >= paddleY && yAtImpact <= paddleY + PADDLE_HEIGHT) {
+            return t;
+        }
+        return 2.0;
+    }
+    
+    private static double impactTime(double gap, double distance) {
+        if (gap <= 0) {
+            return 0; // Already touching (or past) the surface
+        }
+        return gap < distance ? gap / distance : 2.0;
+    }
+    
+    // Horizontal velocity after bouncing off a paddle: reversed and sped up slightly
+    private static double bounceVelX(double velX) {
+        return limitSpeed(-velX * 1.05);
+    }
+    
+    // Vertical velocity after bouncing off a paddle: spin based on where it hit, sped up slightly
+    private double bounceVelY(double velY, double y, double paddleY) {
+        double paddleCenter = paddleY + PADDLE_HEIGHT / 2;
+        double hitPosition = (y + BALL_SIZE / 2 - paddleCenter) / (PADDLE_HEIGHT / 2);
+        return limitSpeed((velY + hitPosition * spinFactor) * 1.05);
+    }
+    
+    private static double limitSpeed(double velocity) {
+        return Math.max(-MAX_BALL_SPEED, Math.min(MAX_BALL_SPEED, velocity));
+    }
+    
+    private void checkScoring() {
+        // Player 2 scores (ball went off left side)
+        if (ballX < 0) {
+            player2Score++;
+            lastRallyHits = rallyHits;
+            resetBall(false); // Ball starts going toward player 1
+        }
+        
+        // Player 1 scores (ball went off right side)
+        if (ballX > COURT_WIDTH) {
+            player1Score++;
+            lastRallyHits = rallyHits;
+            resetBall(true); // Ball starts going toward player 2
+        }
+    }
+    
+    private void resetBall(boolean towardPlayer2) {
+        ballX = COURT_WIDTH / 2;
+        ballY = COURT_HEIGHT / 2;
+        ballVelX = towardPlayer2 ? initialBallSpeed : -initialBallSpeed;
+        ballVelY = (nextRandom() - 0.5) * 4; // Random Y velocity
+        rallyHits = 0;
+    }
+    
+    // Copies all game state (including the random number state) from another simulation
+    void copyFrom(PongSimulation other) {
+        player1Y = other.player1Y;
+        player2Y = other.player2Y;
+        ballX = other.ballX;
+        ballY = other.ballY;
+        ballVelX = other.ballVelX;
+        ballVelY = other.ballVelY;
+        player1Score = other.player1Score;
+        player2Score = other.player2Score;
+        gameOver = other.gameOver;
+        rallyHits = other.rallyHits;
+        lastRallyHits = other.lastRallyHits;
+        rngState = other.rngState;
+        winningScore = other.winningScore;
+        chaosBallCount = other.chaosBallCount;
+        if (other.chaosBalls == null) {
+            chaosBalls = null;
+        } else {
+            if (chaosBalls == null || chaosBalls.capacity() < other.chaosBalls.count) {
+                chaosBalls = new PongBallStore(other.chaosBalls.capacity());
+            }
+            chaosBalls.copyFrom(other.chaosBalls);
+        }
+    }
+    
+    // SplitMix64, returning a double in [0, 1)
+    private double nextRandom() {
+        long z = (rngState += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53;
+    }
+}
\ No newline at end of file
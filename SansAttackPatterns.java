@@ -0,0 +1,211 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Sans's attacks, read from a pattern file (see sans_attacks.pat for the format) and compiled
+// into one flat timeline: every spawn of every attack, sorted by tick, in parallel arrays. An
+// attack in progress just keeps a cursor into its stretch of the timeline and runs whatever
+// is due each tick, so nothing is parsed or looked up while playing.
+class SansAttackPatterns {
+    // What a timeline entry spawns
+    static final int WALL = 0; // arg1..arg2: the rows (0-7) left open
+    static final int SLAM = 1;
+    static final int BLASTER = 2;
+    static final int RANDOM_BONE = 3; // arg1: the chance of a bone
+    static final int AIMED_BLASTER = 4; // arg1: where, in degrees around the battle box
+    static final int SPINNING_BLASTER = 5; // arg1: where, arg2: degrees per second it turns
+    static final int WALL_ROWS = 8; // Bones in a wall, top to bottom
+    
+    final String[] names;
+    final int[] lengths; // Ticks each attack lasts
+    final int[] firstEntry; // Where each attack's entries start in the timeline; one extra at the end
+    
+    // The timeline
+    final int[] ticks; // Ticks are counted from 1 at the start of each attack
+    final int[] spawns;
+    final double[] arg1;
+    final double[] arg2;
+    
+    private SansAttackPatterns(List<Attack> attacks) {
+        int attackCount = attacks.size();
+        int entryCount = 0;
+        for (Attack attack : attacks) {
+            entryCount += attack.entries.size();
+        }
+        
+        names = new String[attackCount];
+        lengths = new int[attackCount];
+        firstEntry = new int[attackCount + 1];
+        ticks = new int[entryCount];
+        spawns = new int[entryCount];
+        arg1 = new double[entryCount];
+        arg2 = new double[entryCount];
+        
+        int e = 0;
+        for (int a = 0; a < attackCount; a++) {
+            Attack attack = attacks.get(a);
+            names[a] = attack.name;
+            lengths[a] = attack.length;
+            firstEntry[a] = e;
+            attack.entries.sort(Comparator.comparingInt(entry -> entry.tick)); // Stable, so file order breaks ties
+            for (Entry entry : attack.entries) {
+                ticks[e] = entry.tick;
+                spawns[e] = entry.spawn;
+                arg1[e] = entry.arg1;
+                arg2[e] = entry.arg2;
+                e++;
+            }
+        }
+        firstEntry[attackCount] = e;
+    }
+    
+    int attackCount() {
+        return names.length;
+    }
+    
+    // Loads a pattern file from the classpath, or failing that from the working directory
+    static SansAttackPatterns load(String name) throws IOException {
+        InputStream resource = SansAttackPatterns.class.getResourceAsStream("/" + name);
+        if (resource != null) {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(resource, StandardCharsets.UTF_8))) {
+                return parse(in, name);
+            }
+        }
+        Path path = Paths.get(name);
+        try (BufferedReader in = Files.newBufferedReader(path)) {
+            return parse(in, name);
+        }
+    }
+    
+    static SansAttackPatterns parse(BufferedReader in, String source) throws IOException {
+        List<Attack> attacks = new ArrayList<>();
+        Attack attack = null;
+        int lineNumber = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) line = line.substring(0, comment);
+            String[] words = line.trim().split("\\s+");
+            if (words[0].isEmpty()) continue;
+            
+            String where = source + ":" + lineNumber + ": ";
+            try {
+                if (words[0].equals("attack")) {
+                    if (words.length != 3) throw new IOException("expected 'attack <name> <length>'");
+                    attack = new Attack(words[1], positive(words[2], "length"));
+                    attacks.add(attack);
+                    continue;
+                }
+                if (attack == null) {
+                    throw new IOException("expected 'attack <name> <length>' first");
+                }
+                
+                int first;
+                int every;
+                int spawnAt;
+                if (words[0].equals("at") && words.length >= 3) {
+                    first = positive(words[1], "tick");
+                    every = 0;
+                    spawnAt = 2;
+                } else if (words[0].equals("every") && words.length >= 5 && words[2].equals("from")) {
+                    every = positive(words[1], "interval");
+                    first = positive(words[3], "tick");
+                    spawnAt = 4;
+                } else {
+                    throw new IOException("expected 'at <tick> <spawn>' or 'every <n> from <tick> <spawn>'");
+                }
+                
+                if (first > attack.length) {
+                    throw new IOException("tick " + first + " is past the end of the attack (" + attack.length + ")");
+                }
+                Entry entry = parseSpawn(words, spawnAt);
+                for (int tick = first; tick <= attack.length; tick += every) {
+                    attack.entries.add(new Entry(tick, entry.spawn, entry.arg1, entry.arg2));
+                    if (every == 0) break;
+                }
+            } catch (IOException | NumberFormatException e) {
+                throw new IOException(where + e.getMessage(), e);
+            }
+        }
+        
+        if (attacks.isEmpty()) {
+            throw new IOException(source + ": no attacks");
+        }
+        return new SansAttackPatterns(attacks);
+    }
+    
+    private static Entry parseSpawn(String[] words, int at) throws IOException {
+        String[] args = new String[words.length - at - 1];
+        System.arraycopy(words, at + 1, args, 0, args.length);
+        switch (words[at]) {
+            case "wall":
+                if (args.length != 2) throw new IOException("expected 'wall <gap from> <gap to>'");
+                int from = Integer.parseInt(args[0]);
+                int to = Integer.parseInt(args[1]);
+                if (from < 0 || to >= WALL_ROWS || from > to) {
+                    throw new IOException("wall gap " + from + ".." + to + " must be rows 0-" + (WALL_ROWS - 1) + ", first to last");
+                }
+                return new Entry(0, WALL, from, to);
+            case "slam":
+                if (args.length != 0) throw new IOException("'slam' takes no arguments");
+                return new Entry(0, SLAM, 0, 0);
+            case "blaster":
+                if (args.length == 0) {
+                    return new Entry(0, BLASTER, 0, 0);
+                }
+                if (args.length == 2 && args[0].equals("aimed")) {
+                    return new Entry(0, AIMED_BLASTER, Double.parseDouble(args[1]), 0);
+                }
+                if (args.length == 3 && args[0].equals("spinning")) {
+                    return new Entry(0, SPINNING_BLASTER, Double.parseDouble(args[1]), Double.parseDouble(args[2]));
+                }
+                throw new IOException("expected 'blaster', 'blaster aimed <angle>' or 'blaster spinning <angle> <speed>'");
+            case "random":
+                if (args.length != 1) throw new IOException("expected 'random <chance>'");
+                return new Entry(0, RANDOM_BONE, Double.parseDouble(args[0]), 0);
+            default:
+                throw new IOException("unknown spawn '" + words[at] + "'");
+        }
+    }
+    
+    private static int positive(String word, String what) throws IOException {
+        int value = Integer.parseInt(word);
+        if (value <= 0) throw new IOException(what + " must be at least 1, not " + value);
+        return value;
+    }
+    
+    // Only used while compiling
+    private static class Attack {
+        final String name;
+        final int length;
+        final List<Entry> entries = new ArrayList<>();
+        
+        Attack(String name, int length) {
+            this.name = name;
+            this.length = length;
+        }
+    }
+    
+    private static class Entry {
+        final int tick;
+        final int spawn;
+        final double arg1;
+        final double arg2;
+        
+        Entry(int tick, int spawn, double arg1, double arg2) {
+            this.tick = tick;
+            this.spawn = spawn;
+            this.arg1 = arg1;
+            this.arg2 = arg2;
+        }
+    }
+}
\ No newline at end of file
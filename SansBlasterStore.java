@@ -0,0 +1,85 @@
+// The Gaster Blasters in play in SansSimulation, kept as parallel arrays like
+// SansBoneStore. Removal moves blasters between slots, so each also has an id that stays the
+// same for as long as it lives, for things (like its timers) that need to find it later.
+//
+// A blaster's direction is kept as its cosine and sine rather than an angle, and a spinning
+// blaster turns by multiplying them with the cosine and sine of its turn per tick, so no
+// trigonometry is needed after it spawns. The four corners of its beam are cached too, and
+// only recomputed when it turns.
+class SansBlasterStore {
+    final double[] x;
+    final double[] y;
+    final double[] cos;
+    final double[] sin;
+    final double[] turnCos; // Rotation per tick (1 and 0 for a blaster that doesn't turn)
+    final double[] turnSin;
+    final double[] beamX; // Four corners per blaster, at 4 * i
+    final double[] beamY;
+    final boolean[] firing;
+    final int[] id; // Each slot's blaster's id
+    final int[] slotOf; // Each live id's slot
+    private final int[] freeIds;
+    private int freeCount;
+    int count = 0;
+    
+    SansBlasterStore(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        cos = new double[capacity];
+        sin = new double[capacity];
+        turnCos = new double[capacity];
+        turnSin = new double[capacity];
+        beamX = new double[4 * capacity];
+        beamY = new double[4 * capacity];
+        firing = new boolean[capacity];
+        id = new int[capacity];
+        slotOf = new int[capacity];
+        freeIds = new int[capacity];
+        clear();
+    }
+    
+    int capacity() {
+        return x.length;
+    }
+    
+    // Returns the new blaster's slot, or -1 (and adds nothing) when the store is full.
+    // The direction (cos, sin) and turn must be unit length.
+    int add(double blasterX, double blasterY, double blasterCos, double blasterSin, double blasterTurnCos, double blasterTurnSin) {
+        if (count == x.length) return -1;
+        x[count] = blasterX;
+        y[count] = blasterY;
+        cos[count] = blasterCos;
+        sin[count] = blasterSin;
+        turnCos[count] = blasterTurnCos;
+        turnSin[count] = blasterTurnSin;
+        firing[count] = false;
+        id[count] = freeIds[--freeCount];
+        slotOf[id[count]] = count;
+        return count++;
+    }
+    
+    // Removes the blaster in slot i by moving the last blaster into its place
+    void remove(int i) {
+        freeIds[freeCount++] = id[i];
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        cos[i] = cos[last];
+        sin[i] = sin[last];
+        turnCos[i] = turnCos[last];
+        turnSin[i] = turnSin[last];
+        firing[i] = firing[last];
+        id[i] = id[last];
+        slotOf[id[i]] = i;
+        System.arraycopy(beamX, 4 * last, beamX, 4 * i, 4);
+        System.arraycopy(beamY, 4 * last, beamY, 4 * i, 4);
+    }
+    
+    void clear() {
+        count = 0;
+        freeCount = freeIds.length;
+        for (int i = 0; i < freeCount; i++) {
+            freeIds[i] = freeCount - 1 - i; // Hand out low ids first
+        }
+    }
+}
\ No newline at end of file
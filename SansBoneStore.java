@@ -0,0 +1,57 @@
+// The bones in play in SansSimulation: each a box moving at a fixed velocity, with the shape
+// it's drawn as. A full store refuses new bones rather than growing. Removal swaps the last
+// bone into the gap, so the order of bones isn't kept and an index only holds until then.
+class SansBoneStore {
+    final double[] x;
+    final double[] y;
+    final double[] velX;
+    final double[] velY;
+    final double[] width;
+    final double[] height;
+    final int[] shape; // Which of SansSimulation's bone shapes, and so which sprite
+    int count = 0;
+    
+    SansBoneStore(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        velX = new double[capacity];
+        velY = new double[capacity];
+        width = new double[capacity];
+        height = new double[capacity];
+        shape = new int[capacity];
+    }
+    
+    int capacity() {
+        return x.length;
+    }
+    
+    // Returns false (and adds nothing) when the store is full
+    boolean add(double boneX, double boneY, double boneVelX, double boneVelY, double boneWidth, double boneHeight, int boneShape) {
+        if (count == x.length) return false;
+        x[count] = boneX;
+        y[count] = boneY;
+        velX[count] = boneVelX;
+        velY[count] = boneVelY;
+        width[count] = boneWidth;
+        height[count] = boneHeight;
+        shape[count] = boneShape;
+        count++;
+        return true;
+    }
+    
+    // Removes bone i by moving the last bone into its place
+    void remove(int i) {
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        velX[i] = velX[last];
+        velY[i] = velY[last];
+        width[i] = width[last];
+        height[i] = height[last];
+        shape[i] = shape[last];
+    }
+    
+    void clear() {
+        count = 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,173 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Plays every Sans attack pattern thousands of times headless, on every core, with bots of
+// different skill at the controls, and reports how much HP each pattern costs. For tuning the
+// patterns (wall gaps, blaster timings) and the player's speed by data rather than by feel.
+// Each battle starts a single attack at full HP and runs until it's over and any karma has
+// drained.
+//
+// Usage: java SansBotRunner [--battles N] [--threads N] [--seed N]
+//                           [--policy random|greedy|lookahead|all]
+//                           [--player-speed X] [--patterns FILE]
+class SansBotRunner {
+    private static final String[] POLICIES = {"random", "greedy", "lookahead"};
+    // Battles still going after this many ticks are abandoned
+    private static final int MAX_TICKS_PER_BATTLE = 100_000;
+    
+    public static void main(String[] args) throws Exception {
+        int battles = 1000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        String[] policies = POLICIES;
+        double playerSpeed = SansSimulation.PLAYER_SPEED;
+        String patternFile = SansSimulation.PATTERN_FILE;
+        
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for option: " + args[i]);
+            }
+            switch (args[i]) {
+                case "--battles":
+                    battles = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[i + 1]);
+                    break;
+                case "--policy":
+                    policies = args[i + 1].equals("all") ? POLICIES : new String[] {args[i + 1]};
+                    break;
+                case "--player-speed":
+                    playerSpeed = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--patterns":
+                    patternFile = args[i + 1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        for (String policy : policies) {
+            SansDodgePolicy.named(policy, 0); // Fail now on a bad name, not in a worker
+        }
+        
+        // The compiled patterns are read-only, so every simulation shares one copy
+        SansAttackPatterns patterns = SansAttackPatterns.load(patternFile);
+        int attacks = patterns.attackCount();
+        
+        // Every policy against every pattern, each split across the workers
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<List<Future<Stats>>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (String policy : policies) {
+            for (int attack = 0; attack < attacks; attack++) {
+                List<Future<Stats>> shares = new ArrayList<>();
+                int first = 0;
+                for (int w = 0; w < threads; w++) {
+                    int share = battles / threads + (w < battles % threads ? 1 : 0);
+                    SansSimulation sim = new SansSimulation(seed, patterns, playerSpeed);
+                    int which = attack;
+                    long battleSeed = seed + first;
+                    shares.add(pool.submit(() -> playBattles(sim, policy, which, battleSeed, share)));
+                    first += share;
+                }
+                results.add(shares);
+            }
+        }
+        
+        System.out.printf("Player speed %.2f, %d battles per pattern per policy, patterns from %s%n",
+                playerSpeed, battles, patternFile);
+        System.out.printf("%-10s %-10s %7s %8s %5s %5s %5s%n", "policy", "pattern", "died", "HP lost", "p50", "p90", "max");
+        int r = 0;
+        long ticks = 0;
+        for (String policy : policies) {
+            for (int attack = 0; attack < attacks; attack++) {
+                Stats total = new Stats();
+                for (Future<Stats> share : results.get(r)) {
+                    total.add(share.get());
+                }
+                r++;
+                ticks += total.ticks;
+                System.out.printf("%-10s %-10s %6.1f%% %8.2f %5d %5d %5d%n", policy, patterns.names[attack],
+                        100.0 * total.deaths / total.battles, total.meanLost(),
+                        total.lostPercentile(0.50), total.lostPercentile(0.90), total.mostLost());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        
+        System.out.printf("Played %d battles (%d ticks) in %.2f s on %d threads (%.0f ticks/s per thread)%n",
+                (long) battles * attacks * policies.length, ticks, seconds, threads, ticks / seconds / threads);
+    }
+    
+    private static Stats playBattles(SansSimulation sim, String policyName, int attack, long seed, int battles) {
+        Stats stats = new Stats();
+        for (int b = 0; b < battles; b++) {
+            SansDodgePolicy policy = SansDodgePolicy.named(policyName, seed + b);
+            sim.restart(seed + b);
+            sim.startAttack(attack);
+            int ticks = 0;
+            while (!sim.gameOver && (!sim.playerTurn || sim.damage.karma > 0) && ticks < MAX_TICKS_PER_BATTLE) {
+                sim.step(policy.input(sim));
+                ticks++;
+            }
+            stats.ticks += ticks;
+            stats.record(SansSimulation.MAX_HP - Math.max(0, sim.playerHP), sim.gameOver);
+        }
+        return stats;
+    }
+    
+    // Results from one worker, merged at the end
+    static class Stats {
+        long battles;
+        long deaths;
+        long ticks;
+        long[] lostCounts = new long[SansSimulation.MAX_HP + 1]; // By HP lost
+        
+        void record(int lost, boolean died) {
+            battles++;
+            if (died) deaths++;
+            lostCounts[lost]++;
+        }
+        
+        void add(Stats other) {
+            battles += other.battles;
+            deaths += other.deaths;
+            ticks += other.ticks;
+            for (int i = 0; i < lostCounts.length; i++) {
+                lostCounts[i] += other.lostCounts[i];
+            }
+        }
+        
+        double meanLost() {
+            long total = 0;
+            for (int i = 0; i < lostCounts.length; i++) {
+                total += i * lostCounts[i];
+            }
+            return battles == 0 ? 0 : (double) total / battles;
+        }
+        
+        int lostPercentile(double p) {
+            long target = (long) Math.ceil(p * battles);
+            long seen = 0;
+            for (int i = 0; i < lostCounts.length; i++) {
+                seen += lostCounts[i];
+                if (seen >= target && seen > 0) return i;
+            }
+            return lostCounts.length - 1;
+        }
+        
+        int mostLost() {
+            for (int i = lostCounts.length - 1; i > 0; i--) {
+                if (lostCounts[i] > 0) return i;
+            }
+            return 0;
+        }
+    }
+}
\ No newline at end of file
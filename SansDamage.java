@@ -0,0 +1,91 @@
+// Damage to the player in SansSimulation. The collision checks only note what is touching
+// the player; once they're done, apply() works out what the tick costs in one place. Touching
+// several things, or the same thing twice, still only counts as one hit, and after a hit the
+// player is invincible for a while. Every source also adds karma, which drains HP a point at a
+// time afterwards, so standing in an attack keeps hurting even while invincible. Karma never
+// takes the last point of HP; only a hit can do that.
+class SansDamage {
+    // What touched the player
+    static final int BONE = 0; // id: bone index
+    static final int BEAM = 1; // id: blaster id
+    
+    // More sources than this in one tick are ignored (they'd make no difference)
+    private static final int MAX_HITS_PER_TICK = 64;
+    
+    final int hitDamage;
+    final int invincibleTicks; // After a hit, how long before the next one counts
+    final int karmaPerHit;
+    final int maxKarma;
+    final int karmaDrainTicks; // Ticks per point of karma drained
+    
+    // This tick's hits, without duplicates
+    private final int[] hitKinds = new int[MAX_HITS_PER_TICK];
+    private final int[] hitIds = new int[MAX_HITS_PER_TICK];
+    private int hitCount = 0;
+    
+    int karma = 0;
+    int invincibleFor = 0; // Ticks left
+    private int drainIn = 0;
+    
+    SansDamage(int hitDamage, int invincibleTicks, int karmaPerHit, int maxKarma, int karmaDrainTicks) {
+        this.hitDamage = hitDamage;
+        this.invincibleTicks = invincibleTicks;
+        this.karmaPerHit = karmaPerHit;
+        this.maxKarma = maxKarma;
+        this.karmaDrainTicks = karmaDrainTicks;
+    }
+    
+    // Notes that something is touching the player this tick
+    void hit(int kind, int id) {
+        for (int i = 0; i < hitCount; i++) {
+            if (hitKinds[i] == kind && hitIds[i] == id) return;
+        }
+        if (hitCount == MAX_HITS_PER_TICK) return;
+        hitKinds[hitCount] = kind;
+        hitIds[hitCount] = id;
+        hitCount++;
+    }
+    
+    // Ends the tick: returns the HP lost out of hp, and forgets the tick's hits
+    int apply(int hp) {
+        int lost = 0;
+        if (hitCount > 0) {
+            if (karma == 0) {
+                // A full interval before the first point drains, so a hit never costs more than
+                // hitDamage on the tick it lands
+                drainIn = karmaDrainTicks;
+            }
+            karma = Math.min(maxKarma, karma + hitCount * karmaPerHit);
+        }
+        if (hitCount > 0 && invincibleFor == 0) {
+            lost = hitDamage;
+            invincibleFor = invincibleTicks;
+        } else if (invincibleFor > 0) {
+            invincibleFor--;
+        }
+        hitCount = 0;
+        
+        if (karma > 0 && --drainIn <= 0) {
+            drainIn = karmaDrainTicks;
+            karma--;
+            if (hp - lost > 1) {
+                lost++;
+            }
+        }
+        return lost;
+    }
+    
+    // Ends the tick without anything taking effect: returns how many things were touching
+    int discard() {
+        int hits = hitCount;
+        hitCount = 0;
+        return hits;
+    }
+    
+    void reset() {
+        hitCount = 0;
+        karma = 0;
+        invincibleFor = 0;
+        drainIn = 0;
+    }
+}
\ No newline at end of file
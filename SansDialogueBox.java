@@ -0,0 +1,105 @@
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import java.util.ArrayList;
+import java.util.List;
+
+// Sans's dialogue, typed out a letter per tick like the original. Each line is laid out once,
+// when it first shows up: wrapped to the box by measuring it in the dialogue font, and every
+// prefix of every wrapped row cut up front. Drawing a frame is then just the rows revealed so
+// far, the last one cut short, with no measuring or string building.
+class SansDialogueBox {
+    private final Font font;
+    private final double left;
+    private final double top; // Baseline of the first row
+    private final double width;
+    private final double rowHeight;
+    private final Text measure = new Text();
+    
+    private String line = null; // What's laid out; lines come from constants, so compared by identity
+    private String[][] rowPrefixes = new String[0][]; // [row][n]: the row's first n characters
+    private int length = 0; // Characters in all rows
+    private int revealed = 0;
+    
+    SansDialogueBox(Font font, double left, double top, double width, double rowHeight) {
+        this.font = font;
+        this.left = left;
+        this.top = top;
+        this.width = width;
+        this.rowHeight = rowHeight;
+        measure.setFont(font);
+    }
+    
+    // Starts typing out a new line; the same line again carries on where it was
+    void show(String text) {
+        if (text == line) return;
+        line = text;
+        revealed = 0;
+        
+        List<String> rows = wrap(text);
+        rowPrefixes = new String[rows.size()][];
+        length = 0;
+        for (int r = 0; r < rows.size(); r++) {
+            String row = rows.get(r);
+            rowPrefixes[r] = new String[row.length() + 1];
+            for (int n = 0; n <= row.length(); n++) {
+                rowPrefixes[r][n] = row.substring(0, n);
+            }
+            length += row.length();
+        }
+    }
+    
+    // Reveals the next character
+    void tick() {
+        if (revealed < length) {
+            revealed++;
+        }
+    }
+    
+    boolean finished() {
+        return revealed == length;
+    }
+    
+    // Rows taken up by the line, for placing anything below it
+    int rows() {
+        return rowPrefixes.length;
+    }
+    
+    // Draws what's been revealed, in the current fill
+    void draw(GraphicsContext gc) {
+        gc.setFont(font);
+        int remaining = revealed;
+        for (int r = 0; r < rowPrefixes.length && remaining > 0; r++) {
+            String[] prefixes = rowPrefixes[r];
+            int n = Math.min(remaining, prefixes.length - 1);
+            gc.fillText(prefixes[n], left, top + r * rowHeight);
+            remaining -= n;
+        }
+    }
+    
+    // Breaks text into rows at spaces, as many words to a row as fit; a word too long for a
+    // row gets one to itself
+    private List<String> wrap(String text) {
+        List<String> rows = new ArrayList<>();
+        StringBuilder row = new StringBuilder();
+        for (String word : text.split(" ")) {
+            if (row.length() > 0 && textWidth(row + " " + word) > width) {
+                rows.add(row.toString());
+                row.setLength(0);
+            }
+            if (row.length() > 0) {
+                row.append(' ');
+            }
+            row.append(word);
+        }
+        if (row.length() > 0) {
+            rows.add(row.toString());
+        }
+        return rows;
+    }
+    
+    private double textWidth(String text) {
+        measure.setText(text);
+        return measure.getLayoutBounds().getWidth();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,191 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Something at the controls of a headless SansSimulation: each tick it looks at the battle and
+// picks the input bits to hold. SansBotRunner plays the attacks with these to see how hard each
+// one is for players of different skill.
+interface SansDodgePolicy {
+    // Every way the heart can move in a tick, standing still first
+    int[] MOVES = {
+        0,
+        SansSimulation.LEFT, SansSimulation.RIGHT, SansSimulation.UP, SansSimulation.DOWN,
+        SansSimulation.LEFT | SansSimulation.UP, SansSimulation.LEFT | SansSimulation.DOWN,
+        SansSimulation.RIGHT | SansSimulation.UP, SansSimulation.RIGHT | SansSimulation.DOWN
+    };
+    
+    // Input bits for the next tick
+    int input(SansSimulation sim);
+    
+    static SansDodgePolicy named(String name, long seed) {
+        switch (name) {
+            case "random":
+                return new RandomDodge(seed);
+            case "greedy":
+                return new GreedyDodge();
+            case "lookahead":
+                return new LookaheadDodge();
+            default:
+                throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+    }
+    
+    // Mashes the arrow keys: holds a random direction (or nothing) for a random while
+    class RandomDodge implements SansDodgePolicy {
+        private final SplittableRandom random;
+        private int held = 0;
+        private int ticksLeft = 0;
+        
+        RandomDodge(long seed) {
+            random = new SplittableRandom(seed);
+        }
+        
+        @Override
+        public int input(SansSimulation sim) {
+            if (--ticksLeft <= 0) {
+                held = MOVES[random.nextInt(MOVES.length)];
+                ticksLeft = 10 + random.nextInt(30);
+            }
+            return held;
+        }
+    }
+    
+    // Runs straight away from whatever is closest: the nearest point of any bone or any
+    // blaster's beam line (charging or firing). With nothing close, drifts back to the middle
+    // of the box where there's the most room.
+    class GreedyDodge implements SansDodgePolicy {
+        private static final double DANGER_DISTANCE = 40;
+        private static final double CENTER_X = (SansSimulation.BOX_LEFT + SansSimulation.BOX_RIGHT) / 2.0;
+        private static final double CENTER_Y = (SansSimulation.BOX_TOP + SansSimulation.BOX_BOTTOM) / 2.0;
+        
+        @Override
+        public int input(SansSimulation sim) {
+            double px = sim.playerX;
+            double py = sim.playerY;
+            double nearest = DANGER_DISTANCE * DANGER_DISTANCE;
+            double threatX = Double.NaN;
+            double threatY = Double.NaN;
+            
+            SansBoneStore bones = sim.bones;
+            for (int i = 0; i < bones.count; i++) {
+                double x = Math.max(bones.x[i], Math.min(bones.x[i] + bones.width[i], px));
+                double y = Math.max(bones.y[i], Math.min(bones.y[i] + bones.height[i], py));
+                double d = (x - px) * (x - px) + (y - py) * (y - py);
+                if (d < nearest) {
+                    nearest = d;
+                    threatX = x;
+                    threatY = y;
+                }
+            }
+            
+            SansBlasterStore blasters = sim.blasters;
+            for (int i = 0; i < blasters.count; i++) {
+                double along = (px - blasters.x[i]) * blasters.cos[i] + (py - blasters.y[i]) * blasters.sin[i];
+                along = Math.max(0, Math.min(SansSimulation.BEAM_LENGTH, along));
+                double x = blasters.x[i] + blasters.cos[i] * along;
+                double y = blasters.y[i] + blasters.sin[i] * along;
+                double d = (x - px) * (x - px) + (y - py) * (y - py);
+                if (d < nearest) {
+                    nearest = d;
+                    threatX = x;
+                    threatY = y;
+                }
+            }
+            
+            if (Double.isNaN(threatX)) {
+                return toward(CENTER_X - px, CENTER_Y - py, sim.playerSpeed);
+            }
+            // Straight in line with it on one axis, step aside on that axis too, toward the middle
+            int input = toward(px - threatX, py - threatY, 0);
+            if ((input & (SansSimulation.LEFT | SansSimulation.RIGHT)) == 0) {
+                input |= px < CENTER_X ? SansSimulation.RIGHT : SansSimulation.LEFT;
+            }
+            if ((input & (SansSimulation.UP | SansSimulation.DOWN)) == 0) {
+                input |= py < CENTER_Y ? SansSimulation.DOWN : SansSimulation.UP;
+            }
+            return input;
+        }
+        
+        // Input bits heading roughly along (dx, dy); an axis that's barely involved is left alone
+        private static int toward(double dx, double dy, double deadZone) {
+            int input = 0;
+            if (Math.abs(dx) > deadZone && Math.abs(dx) * 3 > Math.abs(dy)) {
+                input |= dx < 0 ? SansSimulation.LEFT : SansSimulation.RIGHT;
+            }
+            if (Math.abs(dy) > deadZone && Math.abs(dy) * 3 > Math.abs(dx)) {
+                input |= dy < 0 ? SansSimulation.UP : SansSimulation.DOWN;
+            }
+            return input;
+        }
+    }
+    
+    // Tries holding each of the nine moves for the next second or so and picks the one that
+    // gets hit least, soonest hits counting most. Bones move in straight lines, so where each
+    // will be is known exactly; beams are taken to stay where they point now, and a blaster
+    // that isn't firing counts for half, since it may be about to fire or may be done. It
+    // decides afresh every tick, so it only ever commits to one tick of its plan.
+    class LookaheadDodge implements SansDodgePolicy {
+        private static final int HORIZON = 30;
+        private static final double BLASTER_WEIGHT = 0.5;
+        private static final double CENTER_X = (SansSimulation.BOX_LEFT + SansSimulation.BOX_RIGHT) / 2.0;
+        private static final double CENTER_Y = (SansSimulation.BOX_TOP + SansSimulation.BOX_BOTTOM) / 2.0;
+        
+        // Bones that could reach the heart within the horizon, found once per tick
+        private int[] nearby = new int[64];
+        
+        @Override
+        public int input(SansSimulation sim) {
+            SansBoneStore bones = sim.bones;
+            double px = sim.playerX;
+            double py = sim.playerY;
+            double half = SansSimulation.PLAYER_SIZE / 2.0;
+            
+            int nearbyCount = 0;
+            for (int i = 0; i < bones.count; i++) {
+                double reach = (sim.playerSpeed + Math.abs(bones.velX[i]) + Math.abs(bones.velY[i])) * HORIZON + half;
+                if (bones.x[i] - reach < px && bones.x[i] + bones.width[i] + reach > px &&
+                    bones.y[i] - reach < py && bones.y[i] + bones.height[i] + reach > py) {
+                    if (nearbyCount == nearby.length) {
+                        nearby = Arrays.copyOf(nearby, nearbyCount * 2);
+                    }
+                    nearby[nearbyCount++] = i;
+                }
+            }
+            
+            int best = 0;
+            double bestCost = Double.MAX_VALUE;
+            for (int move : MOVES) {
+                double x = px;
+                double y = py;
+                double cost = 0;
+                for (int t = 1; t <= HORIZON; t++) {
+                    x = SansSimulation.moveX(x, move, sim.playerSpeed);
+                    y = SansSimulation.moveY(y, move, sim.playerSpeed);
+                    double weight = HORIZON + 1 - t;
+                    
+                    for (int n = 0; n < nearbyCount; n++) {
+                        int i = nearby[n];
+                        double boneX = bones.x[i] + bones.velX[i] * t;
+                        double boneY = bones.y[i] + bones.velY[i] * t;
+                        if (x + half > boneX && x - half < boneX + bones.width[i] &&
+                            y + half > boneY && y - half < boneY + bones.height[i]) {
+                            cost += weight;
+                        }
+                    }
+                    for (int i = 0; i < sim.blasters.count; i++) {
+                        if (sim.beamHits(i, x, y, SansSimulation.PLAYER_SIZE)) {
+                            cost += sim.blasters.firing[i] ? weight : weight * BLASTER_WEIGHT;
+                        }
+                    }
+                }
+                // Between equally safe moves, keep room to manoeuvre
+                cost += 1e-3 * (Math.abs(x - CENTER_X) + Math.abs(y - CENTER_Y));
+                
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    best = move;
+                }
+            }
+            return best;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,628 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.RecursiveAction;
+
+// The rules of the Sans battle with no JavaFX dependencies, so battles can run without a Stage.
+// ClaudeSansBattle drives one of these from its game loop and draws it; SansBotRunner runs
+// thousands of them headless with a SansDodgePolicy at the controls.
+class SansSimulation {
+    static final int SCREEN_WIDTH = 800;
+    static final int SCREEN_HEIGHT = 600;
+    static final int PLAYER_SIZE = 8;
+    static final double PLAYER_SPEED = 3.0;
+    static final int MAX_HP = 20;
+    
+    // Fixed timestep: one step() is one tick at this rate
+    static final int TICKS_PER_SECOND = 60;
+    
+    // Input bits passed to step()
+    static final int LEFT = 1;
+    static final int RIGHT = 2;
+    static final int UP = 4;
+    static final int DOWN = 8;
+    
+    // Battle box boundaries
+    static final int BOX_LEFT = 200;
+    static final int BOX_RIGHT = 600;
+    static final int BOX_TOP = 300;
+    static final int BOX_BOTTOM = 500;
+    
+    // Most attacks that can be on screen at once; spawns beyond this are dropped
+    static final int MAX_BONES = 16384;
+    static final int MAX_BLASTERS = 128;
+    
+    // Gaster Blaster timings (ticks since it appeared) and beam size
+    static final int BLASTER_FIRE_TICKS = TICKS_PER_SECOND;
+    static final int BLASTER_STOP_TICKS = 2 * TICKS_PER_SECOND;
+    static final int BLASTER_REMOVE_TICKS = 3 * TICKS_PER_SECOND;
+    static final double BEAM_LENGTH = 400;
+    static final double BEAM_HALF_WIDTH = 5;
+    // Aimed and spinning blasters appear on an ellipse this far outside the battle box
+    private static final double BLASTER_RING_X = (BOX_RIGHT - BOX_LEFT) / 2 + 80;
+    private static final double BLASTER_RING_Y = (BOX_BOTTOM - BOX_TOP) / 2 + 60;
+    
+    // A hit costs HIT_DAMAGE and leaves the player invincible for a while; every hit also adds
+    // karma, which drains a point of HP every KARMA_DRAIN_TICKS
+    private static final int HIT_DAMAGE = 1;
+    private static final int INVINCIBLE_TICKS = TICKS_PER_SECOND / 2;
+    private static final int KARMA_PER_HIT = 1;
+    private static final int MAX_KARMA = 10;
+    private static final int KARMA_DRAIN_TICKS = TICKS_PER_SECOND / 4;
+    
+    // Every bone is one of these shapes, each with its own sprite
+    static final int WALL_BONE = 0;
+    static final int SLAM_BONE = 1;
+    static final int FLOOR_BONE = 2;
+    static final int STRESS_BONE = 3;
+    static final double[] BONE_WIDTHS = {20, 20, 15, 6};
+    static final double[] BONE_HEIGHTS = {20, 80, 40, 6};
+    
+    // Bone collisions only happen inside the battle box, so bones there are filed in a grid
+    // of cells about one bone wide, and the player is only tested against nearby cells
+    private static final double GRID_CELL_SIZE = 20;
+    
+    // With at least this many bones, moving them is split into chunks across the common
+    // ForkJoinPool; the grid and removals are then brought up to date in order on this thread
+    private static final int PARALLEL_BONES = 4096;
+    private static final int BONE_CHUNK = 1024;
+    
+    // What became of a bone when it moved
+    private static final byte BONE_OUTSIDE_BOX = 0;
+    private static final byte BONE_IN_BOX = 1;
+    private static final byte BONE_OFF_SCREEN = 2;
+    
+    // How long each line of Sans's dialogue stays up during the player's turn
+    private static final int DIALOGUE_TICKS = 2 * TICKS_PER_SECOND;
+    
+    // Timed events, and what their targets are
+    private static final int FIRE_BLASTER = 0; // Blaster id
+    private static final int STOP_BLASTER = 1; // Blaster id
+    private static final int REMOVE_BLASTER = 2; // Blaster id
+    private static final int END_ATTACK = 3;
+    private static final int NEXT_DIALOGUE = 4;
+    
+    // Bones kept on screen by the stress test, and how long it runs
+    static final int STRESS_BONES = 10_000;
+    private static final int STRESS_TEST_TICKS = 500;
+    
+    // Sans's attacks, loaded from the classpath (or the working directory)
+    static final String PATTERN_FILE = "sans_attacks.pat";
+    
+    // Tuning
+    final SansAttackPatterns patterns;
+    final double playerSpeed;
+    
+    // Player (heart) position
+    double playerX = (BOX_LEFT + BOX_RIGHT) / 2;
+    double playerY = (BOX_TOP + BOX_BOTTOM) / 2;
+    
+    // Game state
+    int playerHP = MAX_HP;
+    final SansDamage damage = new SansDamage(HIT_DAMAGE, INVINCIBLE_TICKS, KARMA_PER_HIT, MAX_KARMA, KARMA_DRAIN_TICKS);
+    boolean gameOver = false;
+    boolean playerTurn = true;
+    int attackTick = 0; // Ticks into the current attack
+    int attackPhase = 0;
+    int attack = 0; // Which of the patterns is playing
+    private int nextEntry = 0; // The next entry due in the pattern's timeline
+    
+    // Game time, and the events (blaster timings, the end of an attack, dialogue) due at
+    // later ticks, so nothing has to be checked every tick to see if its time has come
+    long tick = 0;
+    private final TimerQueue timers = new TimerQueue(3 * MAX_BLASTERS + 8);
+    
+    // Attacks
+    final SansBoneStore bones = new SansBoneStore(MAX_BONES);
+    final SansBlasterStore blasters = new SansBlasterStore(MAX_BLASTERS);
+    private final SpatialGrid boneGrid = new SpatialGrid(BOX_LEFT, BOX_TOP, BOX_RIGHT, BOX_BOTTOM, GRID_CELL_SIZE, MAX_BONES);
+    private double maxBoneWidth = 0; // Largest bone since the grid was cleared, for widening searches
+    private double maxBoneHeight = 0;
+    private final byte[] boneFates = new byte[MAX_BONES];
+    private final BoneChunk[] boneChunks = boneChunks();
+    boolean parallelBones = true; // Off only to check the parallel update against the plain one
+    boolean stressTest = false;
+    int stressHits = 0;
+    
+    // Sans dialogue
+    private static final String[] DIALOGUES = {
+        "it's a beautiful day outside.",
+        "birds are singing, flowers are blooming...",
+        "on days like these, kids like you...",
+        "Should be burning in hell.",
+        "heh. always wondered why people never use their strongest attack first.",
+        "here we go."
+    };
+    String currentDialogue = DIALOGUES[0];
+    private int dialogueIndex = 0;
+    
+    // Random number state. Everything here is deterministic, so two simulations seeded alike
+    // and fed the same inputs stay identical.
+    private long rngState;
+    
+    SansSimulation() {
+        this(System.nanoTime());
+    }
+    
+    SansSimulation(long seed) {
+        this(seed, loadPatterns(), PLAYER_SPEED);
+    }
+    
+    SansSimulation(long seed, SansAttackPatterns patterns, double playerSpeed) {
+        this.patterns = patterns;
+        this.playerSpeed = playerSpeed;
+        this.rngState = seed;
+        restart();
+    }
+    
+    static SansAttackPatterns loadPatterns() {
+        try {
+            return SansAttackPatterns.load(PATTERN_FILE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // Advances the battle by one tick with the given input bits held
+    void step(int input) {
+        if (gameOver) return;
+        
+        tick++;
+        if (!playerTurn) {
+            updateSansAttack(input);
+        }
+        runTimers();
+        applyDamage();
+    }
+    
+    private void runTimers() {
+        while (timers.hasDue(tick)) {
+            int kind = timers.nextKind();
+            int target = timers.nextTarget();
+            timers.pop();
+            
+            switch (kind) {
+                case FIRE_BLASTER:
+                    blasters.firing[blasters.slotOf[target]] = true;
+                    break;
+                case STOP_BLASTER:
+                    blasters.firing[blasters.slotOf[target]] = false;
+                    break;
+                case REMOVE_BLASTER:
+                    blasters.remove(blasters.slotOf[target]);
+                    break;
+                case END_ATTACK:
+                    endSansAttack();
+                    break;
+                case NEXT_DIALOGUE:
+                    if (dialogueIndex < DIALOGUES.length - 1) {
+                        dialogueIndex++;
+                        currentDialogue = DIALOGUES[dialogueIndex];
+                        timers.schedule(tick + DIALOGUE_TICKS, NEXT_DIALOGUE, 0);
+                    }
+                    break;
+            }
+        }
+    }
+    
+    // Where the heart ends up after a tick of moving from (x, y) with the given input, kept in
+    // the battle box. Returns the new x or y; the bots use these to look ahead by the same rules.
+    static double moveX(double x, int input, double speed) {
+        if ((input & LEFT) != 0) x -= speed;
+        if ((input & RIGHT) != 0) x += speed;
+        return Math.max(BOX_LEFT + PLAYER_SIZE, Math.min(BOX_RIGHT - PLAYER_SIZE, x));
+    }
+    
+    static double moveY(double y, int input, double speed) {
+        if ((input & UP) != 0) y -= speed;
+        if ((input & DOWN) != 0) y += speed;
+        return Math.max(BOX_TOP + PLAYER_SIZE, Math.min(BOX_BOTTOM - PLAYER_SIZE, y));
+    }
+    
+    private void updateSansAttack(int input) {
+        // Update player movement
+        playerX = moveX(playerX, input, playerSpeed);
+        playerY = moveY(playerY, input, playerSpeed);
+        
+        // Update attacks
+        attackTick++;
+        
+        // Spawn whatever the attack's pattern has due now (the stress test just keeps the screen full)
+        if (stressTest) {
+            while (bones.count < STRESS_BONES) {
+                spawnStressBone();
+            }
+        } else {
+            int end = patterns.firstEntry[attack + 1];
+            while (nextEntry < end && patterns.ticks[nextEntry] <= attackTick) {
+                spawn(nextEntry);
+                nextEntry++;
+            }
+        }
+        
+        // Update bones (backwards, so a removal only moves in a bone that's already been updated)
+        if (parallelBones && bones.count >= PARALLEL_BONES) {
+            moveBonesInParallel();
+            for (int i = bones.count - 1; i >= 0; i--) {
+                settleBone(i, boneFates[i]);
+            }
+        } else {
+            for (int i = bones.count - 1; i >= 0; i--) {
+                settleBone(i, moveBone(i));
+            }
+        }
+        
+        // Check collision against the bones filed near the player. A bone is filed by its
+        // top left corner, so look as far up and left as the biggest bone reaches.
+        double half = PLAYER_SIZE / 2.0;
+        int firstColumn = boneGrid.column(playerX - half - maxBoneWidth);
+        int lastColumn = boneGrid.column(playerX + half);
+        int firstRow = boneGrid.row(playerY - half - maxBoneHeight);
+        int lastRow = boneGrid.row(playerY + half);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                for (int i = boneGrid.first(column, row); i >= 0; i = boneGrid.next(i)) {
+                    if (boneHits(i, playerX, playerY, PLAYER_SIZE)) {
+                        damage.hit(SansDamage.BONE, i);
+                    }
+                }
+            }
+        }
+        
+        // Update blasters (their timers take care of firing and removing them)
+        for (int i = 0; i < blasters.count; i++) {
+            if (blasters.turnSin[i] != 0) {
+                turnBlaster(i);
+            }
+            
+            // Check collision with beam
+            if (blasters.firing[i] && beamHits(i, playerX, playerY, PLAYER_SIZE)) {
+                damage.hit(SansDamage.BEAM, blasters.id[i]);
+            }
+        }
+    }
+    
+    // Starts Sans's next attack, going round the patterns in order
+    void startSansAttack() {
+        attackPhase++;
+        startAttack((attackPhase - 1) % patterns.attackCount());
+    }
+    
+    // Starts the given pattern
+    void startAttack(int which) {
+        playerTurn = false;
+        attack = which;
+        nextEntry = patterns.firstEntry[attack];
+        attackTick = 0;
+        clearBones();
+        blasters.clear();
+        timers.clear();
+        timers.schedule(tick + patterns.lengths[attack], END_ATTACK, 0);
+        currentDialogue = "";
+    }
+    
+    // An attack that keeps thousands of bones flying, to see how the game copes; the
+    // player can't be hurt during it, hits are just counted
+    void startStressTest() {
+        startAttack(0);
+        stressTest = true;
+        timers.clear();
+        timers.schedule(tick + STRESS_TEST_TICKS, END_ATTACK, 0);
+        stressHits = 0;
+    }
+    
+    private void endSansAttack() {
+        playerTurn = true;
+        stressTest = false;
+        attackTick = 0;
+        // The attack's leftover blasters stay hidden and frozen until the next one clears them
+        timers.clear();
+        timers.schedule(tick + DIALOGUE_TICKS, NEXT_DIALOGUE, 0);
+        currentDialogue = "* Sans is sparing you.";
+        
+        if (attackPhase >= 3) {
+            currentDialogue = "what? you think i'm just gonna stand there and take it?";
+        }
+    }
+    
+    // Runs one entry of the attack timeline
+    private void spawn(int entry) {
+        switch (patterns.spawns[entry]) {
+            case SansAttackPatterns.WALL:
+                spawnBoneWall((int) patterns.arg1[entry], (int) patterns.arg2[entry]);
+                break;
+            case SansAttackPatterns.SLAM:
+                spawnBoneSlam();
+                break;
+            case SansAttackPatterns.BLASTER:
+                spawnGasterBlaster();
+                break;
+            case SansAttackPatterns.AIMED_BLASTER:
+                spawnAimedBlaster(patterns.arg1[entry]);
+                break;
+            case SansAttackPatterns.SPINNING_BLASTER:
+                spawnSpinningBlaster(patterns.arg1[entry], patterns.arg2[entry]);
+                break;
+            case SansAttackPatterns.RANDOM_BONE:
+                spawnRandomBones(patterns.arg1[entry]);
+                break;
+        }
+    }
+    
+    private void spawnBoneWall(int gapFrom, int gapTo) {
+        for (int i = 0; i < SansAttackPatterns.WALL_ROWS; i++) {
+            if (i < gapFrom || i > gapTo) { // Leave a gap
+                addBone(BOX_LEFT - 50, BOX_TOP + i * 25, 2, 0, WALL_BONE);
+            }
+        }
+    }
+    
+    private void spawnBoneSlam() {
+        double targetX = playerX;
+        addBone(targetX - BONE_WIDTHS[SLAM_BONE] / 2, BOX_TOP - 100, 0, 3, SLAM_BONE);
+    }
+    
+    private void spawnGasterBlaster() {
+        double x = BOX_LEFT - 100;
+        double y = playerY;
+        // Pointing right
+        addBlaster(x, y, 1, 0, 0);
+    }
+    
+    // A blaster at the given angle around the battle box (degrees, 0 = right, 90 = below),
+    // pointing at the player
+    private void spawnAimedBlaster(double degrees) {
+        double x = ringX(degrees);
+        double y = ringY(degrees);
+        double dx = playerX - x;
+        double dy = playerY - y;
+        double length = Math.sqrt(dx * dx + dy * dy);
+        addBlaster(x, y, dx / length, dy / length, 0);
+    }
+    
+    // A blaster at the given angle around the battle box, starting out pointing at its
+    // middle and sweeping round at the given speed (degrees per second, clockwise)
+    private void spawnSpinningBlaster(double degrees, double degreesPerSecond) {
+        double x = ringX(degrees);
+        double y = ringY(degrees);
+        double dx = (BOX_LEFT + BOX_RIGHT) / 2 - x;
+        double dy = (BOX_TOP + BOX_BOTTOM) / 2 - y;
+        double length = Math.sqrt(dx * dx + dy * dy);
+        addBlaster(x, y, dx / length, dy / length, Math.toRadians(degreesPerSecond) / TICKS_PER_SECOND);
+    }
+    
+    private static double ringX(double degrees) {
+        return (BOX_LEFT + BOX_RIGHT) / 2 + BLASTER_RING_X * Math.cos(Math.toRadians(degrees));
+    }
+    
+    private static double ringY(double degrees) {
+        return (BOX_TOP + BOX_BOTTOM) / 2 + BLASTER_RING_Y * Math.sin(Math.toRadians(degrees));
+    }
+    
+    // The only trigonometry a blaster needs is here, for its turn per tick
+    private void addBlaster(double x, double y, double cos, double sin, double turnPerTick) {
+        int i = blasters.add(x, y, cos, sin, Math.cos(turnPerTick), Math.sin(turnPerTick));
+        if (i < 0) return;
+        updateBeamCorners(i);
+        
+        int id = blasters.id[i];
+        timers.schedule(tick + BLASTER_FIRE_TICKS, FIRE_BLASTER, id);
+        timers.schedule(tick + BLASTER_STOP_TICKS, STOP_BLASTER, id);
+        timers.schedule(tick + BLASTER_REMOVE_TICKS, REMOVE_BLASTER, id);
+    }
+    
+    // Rotates blaster i by its turn per tick. Over a blaster's few hundred ticks of life the
+    // rounding error this builds up in cos and sin stays far too small to matter.
+    private void turnBlaster(int i) {
+        double cos = blasters.cos[i];
+        double sin = blasters.sin[i];
+        blasters.cos[i] = cos * blasters.turnCos[i] - sin * blasters.turnSin[i];
+        blasters.sin[i] = sin * blasters.turnCos[i] + cos * blasters.turnSin[i];
+        updateBeamCorners(i);
+    }
+    
+    private void updateBeamCorners(int i) {
+        double x = blasters.x[i];
+        double y = blasters.y[i];
+        double alongX = blasters.cos[i] * BEAM_LENGTH;
+        double alongY = blasters.sin[i] * BEAM_LENGTH;
+        double acrossX = -blasters.sin[i] * BEAM_HALF_WIDTH;
+        double acrossY = blasters.cos[i] * BEAM_HALF_WIDTH;
+        
+        int c = 4 * i;
+        blasters.beamX[c] = x + acrossX;
+        blasters.beamY[c] = y + acrossY;
+        blasters.beamX[c + 1] = x + alongX + acrossX;
+        blasters.beamY[c + 1] = y + alongY + acrossY;
+        blasters.beamX[c + 2] = x + alongX - acrossX;
+        blasters.beamY[c + 2] = y + alongY - acrossY;
+        blasters.beamX[c + 3] = x - acrossX;
+        blasters.beamY[c + 3] = y - acrossY;
+    }
+    
+    private void spawnRandomBones(double chance) {
+        if (nextRandom() < chance) {
+            double x = nextRandom() * (BOX_RIGHT - BOX_LEFT) + BOX_LEFT;
+            addBone(x, BOX_BOTTOM + 20, 0, -2, FLOOR_BONE);
+        }
+    }
+    
+    private void spawnStressBone() {
+        double x = nextRandom() * SCREEN_WIDTH;
+        double y = nextRandom() * SCREEN_HEIGHT;
+        double velX = nextRandom() * 4 - 2;
+        double velY = nextRandom() * 4 - 2;
+        addBone(x, y, velX, velY, STRESS_BONE);
+    }
+    
+    private void addBone(double x, double y, double velX, double velY, int shape) {
+        double width = BONE_WIDTHS[shape];
+        double height = BONE_HEIGHTS[shape];
+        if (bones.add(x, y, velX, velY, width, height, shape)) {
+            maxBoneWidth = Math.max(maxBoneWidth, width);
+            maxBoneHeight = Math.max(maxBoneHeight, height);
+        }
+    }
+    
+    // Moves bone i and says where it ended up. Touches nothing but bone i, so any number of
+    // threads can move different bones at once.
+    private byte moveBone(int i) {
+        bones.x[i] += bones.velX[i];
+        bones.y[i] += bones.velY[i];
+        if (boneOffScreen(i)) return BONE_OFF_SCREEN;
+        return boneInBox(i) ? BONE_IN_BOX : BONE_OUTSIDE_BOX;
+    }
+    
+    // Removes bone i if it went off screen, otherwise keeps its grid cell up to date
+    private void settleBone(int i, byte fate) {
+        if (fate == BONE_OFF_SCREEN) {
+            removeBone(i);
+        } else if (fate == BONE_IN_BOX) {
+            boneGrid.place(i, bones.x[i], bones.y[i]);
+        } else {
+            boneGrid.remove(i);
+        }
+    }
+    
+    // Moves every bone, noting each one's fate in boneFates. This thread takes the first
+    // chunk and waits for the pool to finish the rest.
+    private void moveBonesInParallel() {
+        int chunks = (bones.count + BONE_CHUNK - 1) / BONE_CHUNK;
+        for (int c = 1; c < chunks; c++) {
+            boneChunks[c].reinitialize();
+            boneChunks[c].fork();
+        }
+        boneChunks[0].reinitialize();
+        boneChunks[0].invoke();
+        for (int c = 1; c < chunks; c++) {
+            boneChunks[c].join();
+        }
+    }
+    
+    // The tasks are made once and reused every tick, so the parallel update doesn't allocate
+    private BoneChunk[] boneChunks() {
+        BoneChunk[] chunks = new BoneChunk[MAX_BONES / BONE_CHUNK];
+        for (int c = 0; c < chunks.length; c++) {
+            chunks[c] = new BoneChunk(c * BONE_CHUNK);
+        }
+        return chunks;
+    }
+    
+    @SuppressWarnings("serial") // Never serialized; RecursiveAction just happens to be Serializable
+    private class BoneChunk extends RecursiveAction {
+        private final int start;
+        
+        BoneChunk(int start) {
+            this.start = start;
+        }
+        
+        @Override
+        protected void compute() {
+            int end = Math.min(start + BONE_CHUNK, bones.count);
+            for (int i = start; i < end; i++) {
+                boneFates[i] = moveBone(i);
+            }
+        }
+    }
+    
+    // Swap-removes bone i from the store, keeping the grid in step
+    private void removeBone(int i) {
+        int last = bones.count - 1;
+        boneGrid.remove(i);
+        if (last != i) {
+            boneGrid.renumber(last, i);
+        }
+        bones.remove(i);
+    }
+    
+    private void clearBones() {
+        bones.clear();
+        boneGrid.clear();
+        maxBoneWidth = 0;
+        maxBoneHeight = 0;
+    }
+    
+    // Takes whatever the tick's hits and karma cost (the stress test just counts the hits)
+    private void applyDamage() {
+        if (stressTest) {
+            stressHits += damage.discard();
+            return;
+        }
+        playerHP -= damage.apply(playerHP);
+        if (playerHP <= 0) {
+            gameOver = true;
+            currentDialogue = "geeettttttt dunked on!!!";
+        }
+    }
+    
+    // Restarts from the given random seed; simulations restarted from the same seed play the same battle
+    void restart(long seed) {
+        rngState = seed;
+        restart();
+    }
+    
+    void restart() {
+        gameOver = false;
+        playerTurn = true;
+        stressTest = false;
+        playerHP = MAX_HP;
+        damage.reset();
+        attackPhase = 0;
+        dialogueIndex = 0;
+        currentDialogue = DIALOGUES[0];
+        attackTick = 0;
+        playerX = (BOX_LEFT + BOX_RIGHT) / 2;
+        playerY = (BOX_TOP + BOX_BOTTOM) / 2;
+        clearBones();
+        blasters.clear();
+        timers.clear();
+        timers.schedule(tick + DIALOGUE_TICKS, NEXT_DIALOGUE, 0);
+    }
+    
+    boolean boneHits(int i, double px, double py, double pSize) {
+        return px + pSize/2 > bones.x[i] && px - pSize/2 < bones.x[i] + bones.width[i] &&
+               py + pSize/2 > bones.y[i] && py - pSize/2 < bones.y[i] + bones.height[i];
+    }
+    
+    private boolean boneInBox(int i) {
+        return bones.x[i] < BOX_RIGHT && bones.x[i] + bones.width[i] > BOX_LEFT &&
+               bones.y[i] < BOX_BOTTOM && bones.y[i] + bones.height[i] > BOX_TOP;
+    }
+    
+    private boolean boneOffScreen(int i) {
+        double x = bones.x[i];
+        double y = bones.y[i];
+        return x < -100 || x > SCREEN_WIDTH + 100 || y < -100 || y > SCREEN_HEIGHT + 100;
+    }
+    
+    // Separating axis test between the beam (a rotated box) and the player's square: they
+    // overlap unless some axis of either box separates them
+    boolean beamHits(int i, double px, double py, double pSize) {
+        double cos = blasters.cos[i];
+        double sin = blasters.sin[i];
+        double absCos = Math.abs(cos);
+        double absSin = Math.abs(sin);
+        double half = pSize / 2;
+        double halfLength = BEAM_LENGTH / 2;
+        
+        // From the middle of the beam to the middle of the player
+        double dx = px - (blasters.x[i] + cos * halfLength);
+        double dy = py - (blasters.y[i] + sin * halfLength);
+        
+        // The screen's axes
+        if (Math.abs(dx) >= half + halfLength * absCos + BEAM_HALF_WIDTH * absSin) return false;
+        if (Math.abs(dy) >= half + halfLength * absSin + BEAM_HALF_WIDTH * absCos) return false;
+        // The beam's own axes, along it and across it
+        double playerReach = half * (absCos + absSin);
+        if (Math.abs(dx * cos + dy * sin) >= halfLength + playerReach) return false;
+        return Math.abs(dy * cos - dx * sin) < BEAM_HALF_WIDTH + playerReach;
+    }
+    
+    // SplitMix64, returning a double in [0, 1)
+    private double nextRandom() {
+        long z = (rngState += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+// Every sprite ClaudeSansBattle draws for its attacks, drawn once into a single image when the
+// game starts. Drawing a bone or a blaster is then one drawImage from a corner of that image,
+// with no fills or shapes to set up, and since every sprite shares the one texture, a frame's
+// worth of them goes to the graphics card in a few large batches rather than one per bone.
+// Must be built on the FX thread.
+class SansSpriteAtlas {
+    private static final double PADDING = 2; // Between sprites, so smoothing doesn't bleed one into the next
+    
+    final Image image;
+    // Where each sprite is in the image: one per bone shape, then the blaster
+    final double[] x;
+    final double[] y;
+    final double[] width;
+    final double[] height;
+    final int blaster;
+    
+    SansSpriteAtlas(double[] boneWidths, double[] boneHeights, double blasterSize) {
+        int sprites = boneWidths.length + 1;
+        x = new double[sprites];
+        y = new double[sprites];
+        width = new double[sprites];
+        height = new double[sprites];
+        blaster = boneWidths.length;
+        
+        // One row, left to right
+        double right = PADDING;
+        double bottom = 0;
+        for (int s = 0; s < sprites; s++) {
+            x[s] = right;
+            y[s] = PADDING;
+            width[s] = s == blaster ? blasterSize : boneWidths[s];
+            height[s] = s == blaster ? blasterSize : boneHeights[s];
+            right += Math.ceil(width[s]) + PADDING;
+            bottom = Math.max(bottom, PADDING + Math.ceil(height[s]) + PADDING);
+        }
+        
+        Canvas canvas = new Canvas(right, bottom);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        for (int s = 0; s < blaster; s++) {
+            drawBone(gc, x[s], y[s], width[s], height[s]);
+        }
+        drawBlaster(gc, x[blaster], y[blaster], blasterSize);
+        
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        image = canvas.snapshot(parameters, null);
+    }
+    
+    // Draws a sprite with its top left corner at (left, top)
+    void draw(GraphicsContext gc, int sprite, double left, double top) {
+        double w = width[sprite];
+        double h = height[sprite];
+        gc.drawImage(image, x[sprite], y[sprite], w, h, left, top, w, h);
+    }
+    
+    // A bone fills its box, which is also what it hits with: a shaft as thick as the box with
+    // two knobs rounding off each end, or for short stubby bones a rounded block
+    private static void drawBone(GraphicsContext gc, double left, double top, double w, double h) {
+        gc.setFill(Color.WHITE);
+        double thickness = Math.min(w, h);
+        double length = Math.max(w, h);
+        if (length < 2 * thickness) {
+            gc.fillRoundRect(left, top, w, h, thickness / 2, thickness / 2);
+            return;
+        }
+        
+        // Drawn upright; lying down is the same turned a quarter
+        gc.save();
+        if (w > h) {
+            gc.translate(left + w, top);
+            gc.rotate(90);
+        } else {
+            gc.translate(left, top);
+        }
+        double knob = thickness / 2;
+        gc.fillRect(0, knob / 2, thickness, length - knob);
+        gc.fillOval(0, 0, knob, knob);
+        gc.fillOval(knob, 0, knob, knob);
+        gc.fillOval(0, length - knob, knob, knob);
+        gc.fillOval(knob, length - knob, knob, knob);
+        gc.restore();
+    }
+    
+    private static void drawBlaster(GraphicsContext gc, double left, double top, double size) {
+        gc.setFill(Color.WHITE);
+        gc.fillOval(left, top, size, size);
+        gc.setFill(Color.BLACK);
+        gc.fillOval(left + size * 0.2, top + size * 0.3, size * 0.22, size * 0.25);
+        gc.fillOval(left + size * 0.58, top + size * 0.3, size * 0.22, size * 0.25);
+        gc.fillRect(left + size * 0.3, top + size * 0.72, size * 0.4, size * 0.06);
+    }
+}
\ No newline at end of file
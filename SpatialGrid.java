@@ -0,0 +1,109 @@
+import java.util.Arrays;
+
+// A uniform grid over a rectangle, for finding the things near a point without checking all
+// of them. Things are int ids (indexes into the caller's own arrays), each filed under the
+// cell holding one reference point of it. Every cell is an intrusive doubly linked list
+// threaded through per-id arrays, so placing, moving and removing an id is O(1) and nothing
+// is allocated; a thing that stays within its cell costs one comparison per update.
+class SpatialGrid {
+    final double left;
+    final double top;
+    final double cellSize;
+    private final double cellsPerUnit;
+    final int columns;
+    final int rows;
+    
+    private final int[] heads; // First id in each cell, -1 when empty
+    private final int[] next;
+    private final int[] prev;
+    private final int[] cellOf; // -1 when the id isn't in the grid
+    
+    SpatialGrid(double left, double top, double right, double bottom, double cellSize, int capacity) {
+        this.left = left;
+        this.top = top;
+        this.cellSize = cellSize;
+        cellsPerUnit = 1 / cellSize;
+        columns = (int) Math.ceil((right - left) / cellSize);
+        rows = (int) Math.ceil((bottom - top) / cellSize);
+        heads = new int[columns * rows];
+        next = new int[capacity];
+        prev = new int[capacity];
+        cellOf = new int[capacity];
+        Arrays.fill(heads, -1);
+        Arrays.fill(cellOf, -1);
+    }
+    
+    // The column holding x, clamped to the grid
+    int column(double x) {
+        // Truncating rather than flooring is fine: anything left of the grid clamps to 0 anyway
+        return Math.max(0, Math.min(columns - 1, (int) ((x - left) * cellsPerUnit)));
+    }
+    
+    // The row holding y, clamped to the grid
+    int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) ((y - top) * cellsPerUnit)));
+    }
+    
+    // Files id under the cell holding (x, y), clamped to the grid
+    void place(int id, double x, double y) {
+        int cell = row(y) * columns + column(x);
+        if (cellOf[id] == cell) return;
+        remove(id);
+        
+        int head = heads[cell];
+        next[id] = head;
+        prev[id] = -1;
+        if (head >= 0) prev[head] = id;
+        heads[cell] = id;
+        cellOf[id] = cell;
+    }
+    
+    void remove(int id) {
+        int cell = cellOf[id];
+        if (cell < 0) return;
+        if (prev[id] >= 0) {
+            next[prev[id]] = next[id];
+        } else {
+            heads[cell] = next[id];
+        }
+        if (next[id] >= 0) prev[next[id]] = prev[id];
+        cellOf[id] = -1;
+    }
+    
+    // Gives the thing filed as from the id to instead, for callers that fill gaps by moving
+    // their last element. to must not be in the grid.
+    void renumber(int from, int to) {
+        int cell = cellOf[from];
+        cellOf[to] = cell;
+        if (cell < 0) return;
+        
+        next[to] = next[from];
+        prev[to] = prev[from];
+        if (prev[to] >= 0) {
+            next[prev[to]] = to;
+        } else {
+            heads[cell] = to;
+        }
+        if (next[to] >= 0) prev[next[to]] = to;
+        cellOf[from] = -1;
+    }
+    
+    void clear() {
+        // Only ids still filed somewhere need resetting, so walk the cells rather than every id
+        for (int cell = 0; cell < heads.length; cell++) {
+            for (int id = heads[cell]; id >= 0; id = next[id]) {
+                cellOf[id] = -1;
+            }
+        }
+        Arrays.fill(heads, -1);
+    }
+    
+    // Walk a cell with: for (int id = grid.first(c, r); id >= 0; id = grid.next(id))
+    int first(int column, int row) {
+        return heads[row * columns + column];
+    }
+    
+    int next(int id) {
+        return next[id];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+// The balls in StickFigureGame: the classic game's one red ball, or the waves of survival mode.
+// The capacity is fixed up front, and a wave that would overflow it just adds fewer balls.
+class StickBallStore {
+    final double[] x;
+    final double[] y;
+    final double[] velX;
+    final double[] velY;
+    int count = 0;
+    
+    StickBallStore(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        velX = new double[capacity];
+        velY = new double[capacity];
+    }
+    
+    // Returns the new ball's index, or -1 (adding nothing) when the store is full
+    int add(double ballX, double ballY, double ballVelX, double ballVelY) {
+        if (count == x.length) return -1;
+        x[count] = ballX;
+        y[count] = ballY;
+        velX[count] = ballVelX;
+        velY[count] = ballVelY;
+        return count++;
+    }
+    
+    void clear() {
+        count = 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+// The chasers in StickFigureGame's chase mode. The flow field tells each one which way to go,
+// so all a chaser needs of its own is where it is and how fast it moves.
+class StickChaserStore {
+    final double[] x;
+    final double[] y;
+    final double[] speed; // Each a little different, so they don't all bunch up in single file
+    int count = 0;
+    
+    StickChaserStore(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        speed = new double[capacity];
+    }
+    
+    // Returns the new chaser's index, or -1 (adding nothing) when the store is full
+    int add(double chaserX, double chaserY, double chaserSpeed) {
+        if (count == x.length) return -1;
+        x[count] = chaserX;
+        y[count] = chaserY;
+        speed[count] = chaserSpeed;
+        return count++;
+    }
+    
+    void clear() {
+        count = 0;
+    }
+}
\ No newline at end of file
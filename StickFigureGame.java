@@ -2,12 +2,16 @@ import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import javafx.animation.AnimationTimer;
-import javafx.scene.shape.ArcType;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
 
 public class StickFigureGame extends Application {
     private static final int WINDOW_WIDTH = 800;
@@ -16,27 +20,131 @@ public class StickFigureGame extends Application {
     private static final int BALL_RADIUS = 15;
     private static final int BALL_SPEED = 4;
     
+    // Input bits
+    private static final int UP = 1;
+    private static final int DOWN = 2;
+    private static final int LEFT = 4;
+    private static final int RIGHT = 8;
+    
+    // Survival mode (M): waves of smaller balls, one more in each wave than the last, until
+    // thousands of them are bouncing around and off each other
+    private static final int SURVIVAL_BALL_RADIUS = 5;
+    private static final int MAX_BALLS = 4096;
+    private static final int WAVE_TICKS = 60;
+    private static final int SAFE_SPAWN_DISTANCE = 150; // New balls never appear closer to the player
+    private static final int STICK_RADIUS = 10; // Approximate radius of the stick figure
+    // How far the drawn figure reaches from its (x, y): arms to each side, head above, feet below
+    private static final double FIGURE_HALF_WIDTH = 12;
+    private static final double FIGURE_TOP = 20;
+    private static final double FIGURE_BOTTOM = 35;
+    
+    // Chase mode (C): walls to dodge around, and ever more chasers closing in on the player
+    // around them by following one flow field
+    private static final double CHASE_CELL_SIZE = 20;
+    private static final int MAX_CHASERS = 4096;
+    private static final int CHASER_WAVE = 100;
+    private static final int CHASER_WAVE_TICKS = 120;
+    private static final double CHASER_RADIUS = 6;
+    private static final double CHASER_MIN_SPEED = 1.2;
+    private static final double CHASER_MAX_SPEED = 2.2;
+    private static final int[][] CHASE_WALLS = { // Column, row, width, height, in cells
+        {8, 6, 2, 10}, {30, 6, 2, 10}, {14, 4, 12, 2}, {14, 24, 12, 2},
+        {3, 21, 8, 2}, {29, 21, 8, 2}, {19, 9, 2, 3}, {19, 18, 2, 3}
+    };
+    
+    // The crowd (N): harmless stick figures wandering about, each drawn from the sprite sheet
+    private static final int NPC_COUNT = 300;
+    private static final double NPC_SPEED = 1.5;
+    private static final double STRIDE = 8; // Distance walked per frame of the walk cycle
+    private static final Color[] FIGURE_COLORS = {
+        Color.BLACK, Color.DIMGRAY, Color.DARKBLUE, Color.DARKGREEN, Color.SADDLEBROWN
+    };
+    
+    // Open world mode (O): no walls, just an endless world streamed in around the player and
+    // saved under world/
+    private static final String WORLD_DIR = "world";
+    private static final long WORLD_SEED = 0x5717C4F16E5L;
+    private static final long WORLD_BUDGET = 1 << 20; // Bytes of chunks kept in memory, about 900
+    private static final double FEET_OFFSET = 32; // From the figure's (x, y) down to where it stands
+    
     // Stick figure position
     private double playerX = WINDOW_WIDTH / 2;
     private double playerY = WINDOW_HEIGHT / 2;
+    private int playerFacing = StickSpriteSheet.FACING_DOWN;
+    private double playerWalked = 0;
     
-    // Ball position and velocity
-    private double ballX = 100;
-    private double ballY = 100;
-    private double ballVelX = BALL_SPEED;
-    private double ballVelY = BALL_SPEED;
+    // The world, while in open world mode, and the label saying where the player is in it,
+    // made again only when the numbers in it change
+    private StickWorld world;
+    private String worldLabel = "";
+    private long worldLabelX = Long.MIN_VALUE;
+    private long worldLabelY = Long.MIN_VALUE;
+    private int worldLabelChunks = -1;
+    
+    // The crowd, when it's out
+    private final StickNpcStore npcs = new StickNpcStore(NPC_COUNT);
+    private boolean crowd = false;
+    
+    // The balls: just the one in the classic game. Pairs that might be touching are found
+    // through the sweep, which keeps the balls sorted by x.
+    private final StickBallStore balls = new StickBallStore(MAX_BALLS);
+    private final SweepAndPrune sweep = new SweepAndPrune(MAX_BALLS);
+    private final double[] sortedX = new double[MAX_BALLS]; // Ball positions in sweep order
+    private final double[] sortedY = new double[MAX_BALLS];
+    private double ballRadius = BALL_RADIUS;
     
     // Game state
     private boolean gameOver = false;
+    private boolean survival = false;
+    private int survivalTicks = 0;
+    private int wave = 0;
+    
+    // The survival score, alone and with the hint after it, made again only when the tenth of a
+    // second shown or the ball count changes
+    private String survivalScore = "";
+    private String survivalHint = "";
+    private int survivalScoreTenths = -1;
+    private int survivalScoreBalls = -1;
+    private final SplittableRandom random = new SplittableRandom();
+    
+    // The chasers, and the field that steers them all toward the player
+    private final StickChaserStore chasers = new StickChaserStore(MAX_CHASERS);
+    private final FlowField field = new FlowField(WINDOW_WIDTH, WINDOW_HEIGHT, CHASE_CELL_SIZE);
+    private boolean chase = false;
+    private int chaseTicks = 0;
     
-    // Movement flags
-    private boolean upPressed = false;
-    private boolean downPressed = false;
-    private boolean leftPressed = false;
-    private boolean rightPressed = false;
+    // The chase score, alone and with the hint after it, made again like the survival score's
+    private String chaseScore = "";
+    private String chaseHint = "";
+    private int chaseScoreTenths = -1;
+    private int chaseScoreChasers = -1;
+    
+    // Movement keys, and the input bits they came to for this frame's update
+    private final KeyInput keys = new KeyInput()
+        .bind(KeyCode.UP, UP).bind(KeyCode.W, UP)
+        .bind(KeyCode.DOWN, DOWN).bind(KeyCode.S, DOWN)
+        .bind(KeyCode.LEFT, LEFT).bind(KeyCode.A, LEFT)
+        .bind(KeyCode.RIGHT, RIGHT).bind(KeyCode.D, RIGHT);
+    private int input = 0;
+    
+    // Walk cycles for every figure, the player in the first colour
+    private StickSpriteSheet sprites;
+    
+    // Frame timing overlay (F3)
+    private PerfOverlay perf;
+    
+    public StickFigureGame() {
+        for (int[] wall : CHASE_WALLS) {
+            field.block(wall[0], wall[1], wall[2], wall[3]);
+        }
+        restartGame();
+    }
     
     @Override
     public void start(Stage primaryStage) {
+        perf = new PerfOverlay("StickFigureGame");
+        sprites = new StickSpriteSheet(FIGURE_COLORS);
+        
         // Create canvas for drawing
         Canvas canvas = new Canvas(WINDOW_WIDTH, WINDOW_HEIGHT);
         GraphicsContext gc = canvas.getGraphicsContext2D();
@@ -61,8 +169,19 @@ public class StickFigureGame extends Application {
         AnimationTimer gameLoop = new AnimationTimer() {
             @Override
             public void handle(long now) {
+                keys.presented(now, perf);
+                input = keys.input(now);
+                
+                long updateStart = System.nanoTime();
                 update();
+                long drawStart = System.nanoTime();
                 draw(gc);
+                long drawEnd = System.nanoTime();
+                
+                perf.recordUpdate(drawStart - updateStart);
+                perf.recordDraw(drawEnd - drawStart);
+                perf.frame(now, 1 + balls.count + npcs.count + chasers.count);
+                perf.draw(gc);
             }
         };
         
@@ -81,93 +200,312 @@ public class StickFigureGame extends Application {
     }
     
     private void handleKeyPressed(KeyEvent event) {
+        if (event.getCode() == KeyCode.F3) {
+            perf.toggle();
+            return;
+        }
+        if (event.getCode() == KeyCode.M) {
+            setSurvival(!survival);
+            return;
+        }
+        if (event.getCode() == KeyCode.C) {
+            setChase(!chase);
+            return;
+        }
+        if (event.getCode() == KeyCode.N) {
+            if (world == null) {
+                setCrowd(!crowd);
+            }
+            return;
+        }
+        if (event.getCode() == KeyCode.O) {
+            setWorld(world == null);
+            return;
+        }
         if (gameOver) return; // Don't move if game is over
         
-        switch (event.getCode()) {
-            case UP:
-            case W:
-                upPressed = true;
-                break;
-            case DOWN:
-            case S:
-                downPressed = true;
-                break;
-            case LEFT:
-            case A:
-                leftPressed = true;
-                break;
-            case RIGHT:
-            case D:
-                rightPressed = true;
-                break;
-        }
+        keys.offer(event);
     }
     
     private void handleKeyReleased(KeyEvent event) {
-        switch (event.getCode()) {
-            case UP:
-            case W:
-                upPressed = false;
-                break;
-            case DOWN:
-            case S:
-                downPressed = false;
-                break;
-            case LEFT:
-            case A:
-                leftPressed = false;
-                break;
-            case RIGHT:
-            case D:
-                rightPressed = false;
-                break;
-        }
+        keys.offer(event);
     }
     
     private void update() {
         if (gameOver) return; // Don't update if game is over
         
         // Update player position based on pressed keys
-        if (upPressed && playerY > 20) {
-            playerY -= MOVE_SPEED;
+        double startX = playerX;
+        double startY = playerY;
+        if (world != null) {
+            walkInWorld();
+        } else {
+            if ((input & UP) != 0 && playerY > 20 && open(playerX, playerY - MOVE_SPEED)) {
+                playerY -= MOVE_SPEED;
+            }
+            if ((input & DOWN) != 0 && playerY < WINDOW_HEIGHT - 20 && open(playerX, playerY + MOVE_SPEED)) {
+                playerY += MOVE_SPEED;
+            }
+            if ((input & LEFT) != 0 && playerX > 20 && open(playerX - MOVE_SPEED, playerY)) {
+                playerX -= MOVE_SPEED;
+            }
+            if ((input & RIGHT) != 0 && playerX < WINDOW_WIDTH - 20 && open(playerX + MOVE_SPEED, playerY)) {
+                playerX += MOVE_SPEED;
+            }
         }
-        if (downPressed && playerY < WINDOW_HEIGHT - 20) {
-            playerY += MOVE_SPEED;
+        if (playerX != startX || playerY != startY) {
+            playerFacing = StickSpriteSheet.facing(playerX - startX, playerY - startY);
+            playerWalked += MOVE_SPEED;
+        } else {
+            playerWalked = 0;
         }
-        if (leftPressed && playerX > 20) {
-            playerX -= MOVE_SPEED;
+        
+        updateNpcs();
+        
+        // Next wave
+        if (survival && ++survivalTicks % WAVE_TICKS == 0) {
+            spawnWave();
         }
-        if (rightPressed && playerX < WINDOW_WIDTH - 20) {
-            playerX += MOVE_SPEED;
+        if (chase && chaseTicks++ % CHASER_WAVE_TICKS == 0) {
+            for (int n = 0; n < CHASER_WAVE; n++) {
+                spawnChaser();
+            }
         }
+        moveChasers();
         
-        // Update ball position
-        ballX += ballVelX;
-        ballY += ballVelY;
-        
-        // Ball bouncing off walls
-        if (ballX <= BALL_RADIUS || ballX >= WINDOW_WIDTH - BALL_RADIUS) {
-            ballVelX *= -1;
+        double[] x = balls.x;
+        double[] y = balls.y;
+        double[] velX = balls.velX;
+        double[] velY = balls.velY;
+        for (int i = 0; i < balls.count; i++) {
+            // Update ball position
+            x[i] += velX[i];
+            y[i] += velY[i];
+            
+            // Ball bouncing off walls
+            if (x[i] <= ballRadius || x[i] >= WINDOW_WIDTH - ballRadius) {
+                velX[i] *= -1;
+            }
+            if (y[i] <= ballRadius || y[i] >= WINDOW_HEIGHT - ballRadius) {
+                velY[i] *= -1;
+            }
+            
+            // Keep ball in bounds
+            x[i] = Math.max(ballRadius, Math.min(WINDOW_WIDTH - ballRadius, x[i]));
+            y[i] = Math.max(ballRadius, Math.min(WINDOW_HEIGHT - ballRadius, y[i]));
         }
-        if (ballY <= BALL_RADIUS || ballY >= WINDOW_HEIGHT - BALL_RADIUS) {
-            ballVelY *= -1;
+        sweep.sort(x);
+        int[] order = sweep.order;
+        for (int a = 0; a < sweep.count; a++) {
+            sortedX[a] = x[order[a]];
+            sortedY[a] = y[order[a]];
         }
         
-        // Keep ball in bounds
-        ballX = Math.max(BALL_RADIUS, Math.min(WINDOW_WIDTH - BALL_RADIUS, ballX));
-        ballY = Math.max(BALL_RADIUS, Math.min(WINDOW_HEIGHT - BALL_RADIUS, ballY));
+        // Balls bouncing off each other. Along the sorted order, a ball can only be touching the
+        // ones after it until they're a diameter further along in x. Once thousands are crammed
+        // on screen that's still a lot of candidates each, so they're read from the positions
+        // copied out in sweep order rather than through the order.
+        double diameter = ballRadius * 2;
+        for (int a = 0; a < sweep.count; a++) {
+            double ax = sortedX[a];
+            double ay = sortedY[a];
+            for (int b = a + 1; b < sweep.count; b++) {
+                double dx = sortedX[b] - ax;
+                if (dx >= diameter) break;
+                double dy = sortedY[b] - ay;
+                double distanceSquared = dx * dx + dy * dy;
+                if (distanceSquared < diameter * diameter && distanceSquared > 0) {
+                    bounceBalls(order[a], order[b], dx, dy, distanceSquared);
+                }
+            }
+        }
         
-        // Check collision between player and ball
-        double distance = Math.sqrt(Math.pow(playerX - ballX, 2) + Math.pow(playerY - ballY, 2));
-        if (distance < BALL_RADIUS + 10) { // 10 is approximate radius of stick figure
-            gameOver = true;
+        // Check collision between player and balls, again only those close enough in x
+        double reach = ballRadius + STICK_RADIUS;
+        for (int a = sweep.lowerBound(x, playerX - reach); a < sweep.count; a++) {
+            int i = order[a];
+            double dx = x[i] - playerX;
+            if (dx >= reach) break;
+            double dy = y[i] - playerY;
+            if (dx * dx + dy * dy < reach * reach) {
+                gameOver = true;
+                break;
+            }
+        }
+    }
+    
+    // Whether the player may stand at (x, y): anywhere the whole figure stays clear of chase
+    // mode's walls
+    private boolean open(double x, double y) {
+        return !chase || !field.blockedIn(x - FIGURE_HALF_WIDTH, y - FIGURE_TOP, x + FIGURE_HALF_WIDTH, y + FIGURE_BOTTOM);
+    }
+    
+    // Every chaser follows the arrow of the cell it's in, so however many there are, the only
+    // path finding is the one search the field does when the player changes cells. In the
+    // player's own cell they make straight for the player. Each axis is tried separately, and
+    // with the chaser's whole width rather than just its middle, so one nudged against a wall
+    // slides along it. One whose edge catches on a corner edges toward the middle of its cell
+    // instead, where it clears the walls of any cell its arrow points into.
+    private void moveChasers() {
+        if (chasers.count == 0) return;
+        field.target(playerX, playerY);
+        
+        double reach = CHASER_RADIUS + STICK_RADIUS;
+        for (int i = 0; i < chasers.count; i++) {
+            double x = chasers.x[i];
+            double y = chasers.y[i];
+            int cell = field.cellAt(x, y);
+            double dx = field.directionX[cell];
+            double dy = field.directionY[cell];
+            if (field.distance[cell] == 0) {
+                dx = playerX - x;
+                dy = playerY - y;
+                double length = Math.sqrt(dx * dx + dy * dy);
+                if (length > 0) {
+                    dx /= length;
+                    dy /= length;
+                }
+            }
+            
+            double speed = chasers.speed[i];
+            double stepX = dx * speed;
+            double stepY = dy * speed;
+            if (!field.blockedNear(x + stepX, y, CHASER_RADIUS)) {
+                x += stepX;
+            } else if (stepY == 0) {
+                stepY = Math.max(-speed, Math.min(speed, field.centerY(cell) - y));
+            }
+            if (!field.blockedNear(x, y + stepY, CHASER_RADIUS)) {
+                y += stepY;
+            } else if (stepX == 0) {
+                x += Math.max(-speed, Math.min(speed, field.centerX(cell) - x));
+            }
+            chasers.x[i] = x;
+            chasers.y[i] = y;
+            
+            double toPlayerX = x - playerX;
+            double toPlayerY = y - playerY;
+            if (toPlayerX * toPlayerX + toPlayerY * toPlayerY < reach * reach) {
+                gameOver = true;
+            }
+        }
+    }
+    
+    // A chaser somewhere out of the walls, with a way to the player, and not too close to them
+    private void spawnChaser() {
+        field.target(playerX, playerY);
+        double x;
+        double y;
+        do {
+            x = random.nextDouble() * WINDOW_WIDTH;
+            y = random.nextDouble() * WINDOW_HEIGHT;
+        } while (field.distance[field.cellAt(x, y)] == FlowField.UNREACHABLE ||
+                 field.blockedNear(x, y, CHASER_RADIUS) ||
+                 (x - playerX) * (x - playerX) + (y - playerY) * (y - playerY) < SAFE_SPAWN_DISTANCE * SAFE_SPAWN_DISTANCE);
+        chasers.add(x, y, CHASER_MIN_SPEED + random.nextDouble() * (CHASER_MAX_SPEED - CHASER_MIN_SPEED));
+    }
+    
+    // Out in the world there are no walls, only water, rocks and trees to walk around, and the
+    // grass underfoot wears into paths. Each axis is tried separately, so walking into
+    // something at an angle slides along it; someone standing inside something can always
+    // walk out.
+    private void walkInWorld() {
+        double dx = (((input & RIGHT) != 0 ? 1 : 0) - ((input & LEFT) != 0 ? 1 : 0)) * MOVE_SPEED;
+        double dy = (((input & DOWN) != 0 ? 1 : 0) - ((input & UP) != 0 ? 1 : 0)) * MOVE_SPEED;
+        boolean stuck = !world.walkable(playerX, playerY + FEET_OFFSET);
+        if (dx != 0 && (stuck || world.walkable(playerX + dx, playerY + FEET_OFFSET))) {
+            playerX += dx;
+        }
+        if (dy != 0 && (stuck || world.walkable(playerX, playerY + dy + FEET_OFFSET))) {
+            playerY += dy;
+        }
+        world.trample(playerX, playerY + FEET_OFFSET);
+    }
+    
+    // Each figure in the crowd walks a straight line, or stands about, for a random while, then
+    // picks again. They turn back at the edges and walk through balls and each other.
+    private void updateNpcs() {
+        for (int i = 0; i < npcs.count; i++) {
+            if (--npcs.turnIn[i] <= 0) {
+                if (random.nextInt(4) == 0) {
+                    npcs.velX[i] = 0;
+                    npcs.velY[i] = 0;
+                } else {
+                    double angle = random.nextDouble() * 2 * Math.PI;
+                    npcs.velX[i] = Math.cos(angle) * NPC_SPEED;
+                    npcs.velY[i] = Math.sin(angle) * NPC_SPEED;
+                }
+                npcs.turnIn[i] = 30 + random.nextInt(150);
+            }
+            
+            npcs.x[i] += npcs.velX[i];
+            npcs.y[i] += npcs.velY[i];
+            if (npcs.x[i] < 20 || npcs.x[i] > WINDOW_WIDTH - 20) {
+                npcs.velX[i] *= -1;
+                npcs.x[i] = Math.max(20, Math.min(WINDOW_WIDTH - 20, npcs.x[i]));
+            }
+            if (npcs.y[i] < 20 || npcs.y[i] > WINDOW_HEIGHT - 40) {
+                npcs.velY[i] *= -1;
+                npcs.y[i] = Math.max(20, Math.min(WINDOW_HEIGHT - 40, npcs.y[i]));
+            }
+            
+            if (npcs.velX[i] != 0 || npcs.velY[i] != 0) {
+                npcs.facing[i] = StickSpriteSheet.facing(npcs.velX[i], npcs.velY[i]);
+                npcs.walked[i] += NPC_SPEED;
+            } else {
+                npcs.walked[i] = 0;
+            }
+        }
+    }
+    
+    // Two balls of the same mass bounce off each other by swapping the parts of their velocities
+    // along the line between them, (dx, dy) from i to j. Balls already moving apart are left
+    // alone, so overlapping ones don't stick together bouncing back and forth.
+    private void bounceBalls(int i, int j, double dx, double dy, double distanceSquared) {
+        double closing = (balls.velX[j] - balls.velX[i]) * dx + (balls.velY[j] - balls.velY[i]) * dy;
+        if (closing >= 0) return;
+        double scale = closing / distanceSquared;
+        balls.velX[i] += scale * dx;
+        balls.velY[i] += scale * dy;
+        balls.velX[j] -= scale * dx;
+        balls.velY[j] -= scale * dy;
+    }
+    
+    private void spawnWave() {
+        wave++;
+        for (int n = 0; n < wave; n++) {
+            spawnBall();
+        }
+    }
+    
+    // A survival ball somewhere not too close to the player, heading off in any direction
+    private void spawnBall() {
+        double x;
+        double y;
+        do {
+            x = ballRadius + random.nextDouble() * (WINDOW_WIDTH - ballRadius * 2);
+            y = ballRadius + random.nextDouble() * (WINDOW_HEIGHT - ballRadius * 2);
+        } while ((x - playerX) * (x - playerX) + (y - playerY) * (y - playerY) < SAFE_SPAWN_DISTANCE * SAFE_SPAWN_DISTANCE);
+        double angle = random.nextDouble() * 2 * Math.PI;
+        double speed = BALL_SPEED * (0.5 + random.nextDouble() * 0.5);
+        int index = balls.add(x, y, Math.cos(angle) * speed, Math.sin(angle) * speed);
+        if (index >= 0) {
+            sweep.add(index);
         }
     }
     
     private void draw(GraphicsContext gc) {
+        if (world != null) {
+            drawWorld(gc);
+            return;
+        }
+        
         // Clear screen with light blue background
         gc.setFill(Color.LIGHTBLUE);
         gc.fillRect(0, 0, WINDOW_WIDTH, WINDOW_HEIGHT);
+        if (chase) {
+            drawWalls(gc);
+        }
         
         if (gameOver) {
             // Draw game over screen
@@ -178,57 +516,119 @@ public class StickFigureGame extends Application {
             gc.fillText("GAME OVER!", WINDOW_WIDTH / 2 - 50, WINDOW_HEIGHT / 2 - 20);
             gc.fillText("Click to restart", WINDOW_WIDTH / 2 - 50, WINDOW_HEIGHT / 2 + 10);
             
-            // Still draw the stick figure and ball at final positions
-            drawStickFigure(gc, playerX, playerY);
-            drawBall(gc, ballX, ballY);
+            if (survival) {
+                gc.fillText(survivalText(false), WINDOW_WIDTH / 2 - 50, WINDOW_HEIGHT / 2 + 40);
+            } else if (chase) {
+                gc.fillText(chaseText(false), WINDOW_WIDTH / 2 - 50, WINDOW_HEIGHT / 2 + 40);
+            }
+            
+            // Still draw the stick figures, balls and chasers at final positions
+            drawStickFigures(gc, 0, 0);
+            drawBalls(gc);
+            drawChasers(gc);
         } else {
-            // Draw stick figure
-            drawStickFigure(gc, playerX, playerY);
+            // Draw stick figures
+            drawStickFigures(gc, 0, 0);
             
-            // Draw bouncing ball
-            drawBall(gc, ballX, ballY);
+            // Draw bouncing balls, and chasers
+            drawBalls(gc);
+            drawChasers(gc);
             
             // Draw instructions
             gc.setFill(Color.BLACK);
-            gc.fillText("Use arrow keys or WASD to avoid the red ball!", 20, 30);
+            if (survival) {
+                gc.fillText(survivalText(true), 20, 30);
+            } else if (chase) {
+                gc.fillText(chaseText(true), 20, 30);
+            } else {
+                gc.fillText("Use arrow keys or WASD to avoid the red ball! (M for survival mode)", 20, 30);
+            }
+            gc.fillText(crowd ? "N to send the crowd away, O for the open world, C for chase mode"
+                              : "N to bring out a crowd, O for the open world, C for chase mode", 20, 48);
         }
     }
     
-    private void drawStickFigure(GraphicsContext gc, double x, double y) {
-        gc.setStroke(Color.BLACK);
-        gc.setLineWidth(3);
-        
-        // Head (circle)
-        gc.strokeOval(x - 8, y - 20, 16, 16);
+    // The world scrolls along with the player, who stays in the middle of the window
+    private void drawWorld(GraphicsContext gc) {
+        double left = playerX - WINDOW_WIDTH / 2;
+        double top = playerY - WINDOW_HEIGHT / 2;
+        world.draw(gc, left, top, WINDOW_WIDTH, WINDOW_HEIGHT);
+        drawStickFigures(gc, left, top);
         
-        // Body (vertical line)
-        gc.strokeLine(x, y - 4, x, y + 20);
-        
-        // Arms (horizontal line)
-        gc.strokeLine(x - 12, y + 5, x + 12, y + 5);
-        
-        // Left leg
-        gc.strokeLine(x, y + 20, x - 8, y + 35);
-        
-        // Right leg
-        gc.strokeLine(x, y + 20, x + 8, y + 35);
-        
-        // Optional: Add a simple face
+        long x = Math.round(playerX);
+        long y = Math.round(playerY);
+        int chunks = world.cachedChunks();
+        if (x != worldLabelX || y != worldLabelY || chunks != worldLabelChunks) {
+            worldLabelX = x;
+            worldLabelY = y;
+            worldLabelChunks = chunks;
+            worldLabel = "Exploring at (" + x + ", " + y + "), " + chunks + " chunks in memory (O to leave)";
+        }
         gc.setFill(Color.BLACK);
-        // Eyes
-        gc.fillOval(x - 5, y - 16, 2, 2);
-        gc.fillOval(x + 3, y - 16, 2, 2);
-        // Smile (using arc with correct method signature)
-        gc.strokeArc(x - 4, y - 14, 8, 6, 0, 180, ArcType.OPEN);
+        gc.fillText(worldLabel, 20, 30);
+    }
+    
+    private String survivalText(boolean hint) {
+        int tenths = survivalTicks / 6;
+        if (tenths != survivalScoreTenths || balls.count != survivalScoreBalls) {
+            survivalScoreTenths = tenths;
+            survivalScoreBalls = balls.count;
+            survivalScore = "Survived " + tenths / 10 + "." + tenths % 10 + " s, " + balls.count + " balls";
+            survivalHint = survivalScore + " (M for the classic game)";
+        }
+        return hint ? survivalHint : survivalScore;
     }
     
-    private void drawBall(GraphicsContext gc, double x, double y) {
+    private String chaseText(boolean hint) {
+        int tenths = chaseTicks / 6;
+        if (tenths != chaseScoreTenths || chasers.count != chaseScoreChasers) {
+            chaseScoreTenths = tenths;
+            chaseScoreChasers = chasers.count;
+            chaseScore = "Chased for " + tenths / 10 + "." + tenths % 10 + " s by " + chasers.count;
+            chaseHint = chaseScore + " (C for the classic game)";
+        }
+        return hint ? chaseHint : chaseScore;
+    }
+    
+    private void drawWalls(GraphicsContext gc) {
+        gc.setFill(Color.SLATEGRAY);
+        for (int[] wall : CHASE_WALLS) {
+            gc.fillRect(wall[0] * CHASE_CELL_SIZE, wall[1] * CHASE_CELL_SIZE,
+                        wall[2] * CHASE_CELL_SIZE, wall[3] * CHASE_CELL_SIZE);
+        }
+    }
+    
+    // All in one colour, like the balls
+    private void drawChasers(GraphicsContext gc) {
+        gc.setFill(Color.PURPLE);
+        for (int i = 0; i < chasers.count; i++) {
+            gc.fillOval(chasers.x[i] - CHASER_RADIUS, chasers.y[i] - CHASER_RADIUS, CHASER_RADIUS * 2, CHASER_RADIUS * 2);
+        }
+    }
+    
+    // The crowd, then the player in front of it, each one drawImage from the sprite sheet.
+    // (left, top) is the point drawn at the window's top left corner.
+    private void drawStickFigures(GraphicsContext gc, double left, double top) {
+        for (int i = 0; i < npcs.count; i++) {
+            sprites.draw(gc, npcs.color[i], npcs.facing[i], StickSpriteSheet.frame(npcs.walked[i], STRIDE),
+                         npcs.x[i] - left, npcs.y[i] - top);
+        }
+        sprites.draw(gc, 0, playerFacing, StickSpriteSheet.frame(playerWalked, STRIDE), playerX - left, playerY - top);
+    }
+    
+    // All the balls in one colour, then all the highlights, rather than switching fills per ball
+    private void drawBalls(GraphicsContext gc) {
         gc.setFill(Color.RED);
-        gc.fillOval(x - BALL_RADIUS, y - BALL_RADIUS, BALL_RADIUS * 2, BALL_RADIUS * 2);
+        for (int i = 0; i < balls.count; i++) {
+            gc.fillOval(balls.x[i] - ballRadius, balls.y[i] - ballRadius, ballRadius * 2, ballRadius * 2);
+        }
         
-        // Add a white highlight to make it look more 3D
+        // Add a white highlight to make them look more 3D
+        double inset = ballRadius / 5;
         gc.setFill(Color.WHITE);
-        gc.fillOval(x - BALL_RADIUS + 3, y - BALL_RADIUS + 3, 6, 6);
+        for (int i = 0; i < balls.count; i++) {
+            gc.fillOval(balls.x[i] - ballRadius + inset, balls.y[i] - ballRadius + inset, inset * 2, inset * 2);
+        }
     }
     
     private void restartGame() {
@@ -238,18 +638,88 @@ public class StickFigureGame extends Application {
         // Reset player position
         playerX = WINDOW_WIDTH / 2;
         playerY = WINDOW_HEIGHT / 2;
+        playerFacing = StickSpriteSheet.FACING_DOWN;
+        playerWalked = 0;
         
-        // Reset ball position and velocity
-        ballX = 100;
-        ballY = 100;
-        ballVelX = BALL_SPEED;
-        ballVelY = BALL_SPEED;
+        // Reset the balls: the one ball, survival's first wave, or none out in the world or
+        // when chased
+        balls.clear();
+        sweep.clear();
+        survivalTicks = 0;
+        wave = 0;
+        chasers.clear();
+        chaseTicks = 0;
+        if (world != null || chase) {
+            ballRadius = BALL_RADIUS;
+        } else if (survival) {
+            ballRadius = SURVIVAL_BALL_RADIUS;
+            spawnWave();
+        } else {
+            ballRadius = BALL_RADIUS;
+            sweep.add(balls.add(100, 100, BALL_SPEED, BALL_SPEED));
+        }
         
-        // Reset movement flags
-        upPressed = false;
-        downPressed = false;
-        leftPressed = false;
-        rightPressed = false;
+        // Forget the keys held, so the player stays put until one is pressed again
+        keys.clear();
+        input = 0;
+    }
+    
+    private void setSurvival(boolean on) {
+        closeWorld();
+        chase = false;
+        survival = on;
+        restartGame();
+    }
+    
+    private void setChase(boolean on) {
+        closeWorld();
+        survival = false;
+        chase = on;
+        restartGame();
+    }
+    
+    // Opens the world as it was last left, or saves it and goes back to the classic game
+    private void setWorld(boolean on) {
+        closeWorld();
+        if (on) {
+            survival = false;
+            chase = false;
+            setCrowd(false);
+            try {
+                world = new StickWorld(Paths.get(WORLD_DIR), WORLD_SEED, WORLD_BUDGET);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        restartGame();
+    }
+    
+    private void closeWorld() {
+        if (world == null) return;
+        try {
+            world.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        world = null;
+    }
+    
+    // Scatters the crowd across the window, or sends it away
+    private void setCrowd(boolean on) {
+        crowd = on;
+        npcs.clear();
+        if (!crowd) return;
+        for (int i = 0; i < NPC_COUNT; i++) {
+            double x = 20 + random.nextDouble() * (WINDOW_WIDTH - 40);
+            double y = 20 + random.nextDouble() * (WINDOW_HEIGHT - 60);
+            npcs.add(x, y, 1 + random.nextInt(FIGURE_COLORS.length - 1));
+        }
+    }
+    
+    @Override
+    public void stop() throws IOException {
+        closeWorld();
+        perf.save();
     }
     
     public static void main(String[] args) {
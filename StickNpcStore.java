@@ -0,0 +1,43 @@
+// The crowd wandering around StickFigureGame (N): where each figure is, the heading it keeps
+// until turnIn runs out, and how far along its walk cycle it is.
+class StickNpcStore {
+    final double[] x;
+    final double[] y;
+    final double[] velX;
+    final double[] velY;
+    final double[] walked; // Distance since it last stood still, for the walk cycle
+    final int[] facing;
+    final int[] color; // Row in the sprite sheet
+    final int[] turnIn; // Ticks until it picks a new heading
+    int count = 0;
+    
+    StickNpcStore(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        velX = new double[capacity];
+        velY = new double[capacity];
+        walked = new double[capacity];
+        facing = new int[capacity];
+        color = new int[capacity];
+        turnIn = new int[capacity];
+    }
+    
+    // Returns the new figure's index, or -1 (adding nothing) when the store is full. It starts
+    // out standing, facing down, and picks a heading on the next tick.
+    int add(double npcX, double npcY, int npcColor) {
+        if (count == x.length) return -1;
+        x[count] = npcX;
+        y[count] = npcY;
+        velX[count] = 0;
+        velY[count] = 0;
+        walked[count] = 0;
+        facing[count] = StickSpriteSheet.FACING_DOWN;
+        color[count] = npcColor;
+        turnIn[count] = 0;
+        return count++;
+    }
+    
+    void clear() {
+        count = 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.ArcType;
+
+// Every frame of StickFigureGame's walking stick figures, stroked once into a single image
+// when the game starts: a four-frame walk cycle for each way a figure can face, in each of the
+// given colours. A figure is then one drawImage a frame however many are on screen, with no
+// strokes, line widths or colour changes. Must be built on the FX thread.
+class StickSpriteSheet {
+    static final int FACING_DOWN = 0;
+    static final int FACING_UP = 1;
+    static final int FACING_LEFT = 2;
+    static final int FACING_RIGHT = 3;
+    static final int WALK_FRAMES = 4;
+    
+    // How far each limb swings, per frame of the cycle; frame 0 is standing still
+    private static final int[] SWING = {0, 1, 0, -1};
+    
+    // A figure's cell in the image, and where in it the figure's (x, y) is
+    private static final double CELL_WIDTH = 30;
+    private static final double CELL_HEIGHT = 60;
+    private static final double ORIGIN_X = 15;
+    private static final double ORIGIN_Y = 22;
+    
+    final WritableImage image;
+    
+    // One row per colour; along it, each facing's walk cycle in turn
+    StickSpriteSheet(Color... colors) {
+        Canvas canvas = new Canvas(CELL_WIDTH * 4 * WALK_FRAMES, CELL_HEIGHT * colors.length);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setLineWidth(3);
+        for (int c = 0; c < colors.length; c++) {
+            gc.setStroke(colors[c]);
+            gc.setFill(colors[c]);
+            for (int facing = 0; facing < 4; facing++) {
+                for (int frame = 0; frame < WALK_FRAMES; frame++) {
+                    double x = (facing * WALK_FRAMES + frame) * CELL_WIDTH + ORIGIN_X;
+                    double y = c * CELL_HEIGHT + ORIGIN_Y;
+                    drawFigure(gc, x, y, facing, SWING[frame]);
+                }
+            }
+        }
+        
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        image = canvas.snapshot(parameters, null);
+    }
+    
+    // Draws the figure so that its (x, y), the point the game moves around, lands on (x, y)
+    void draw(GraphicsContext gc, int color, int facing, int frame, double x, double y) {
+        double sourceX = (facing * WALK_FRAMES + frame) * CELL_WIDTH;
+        double sourceY = color * CELL_HEIGHT;
+        gc.drawImage(image, sourceX, sourceY, CELL_WIDTH, CELL_HEIGHT,
+                     x - ORIGIN_X, y - ORIGIN_Y, CELL_WIDTH, CELL_HEIGHT);
+    }
+    
+    // The walk cycle frame for a figure that has walked this far since it last stood still
+    static int frame(double walked, double stride) {
+        return (int) (walked / stride) % WALK_FRAMES;
+    }
+    
+    // Which way a figure moving along (dx, dy) faces
+    static int facing(double dx, double dy) {
+        if (Math.abs(dx) >= Math.abs(dy)) {
+            return dx < 0 ? FACING_LEFT : FACING_RIGHT;
+        }
+        return dy < 0 ? FACING_UP : FACING_DOWN;
+    }
+    
+    // The stick figure the game has always drawn, which is the standing frame facing down, with
+    // its limbs swung by swing (-1 to 1)
+    private static void drawFigure(GraphicsContext gc, double x, double y, int facing, int swing) {
+        // Head (circle)
+        gc.strokeOval(x - 8, y - 20, 16, 16);
+        
+        // Body (vertical line)
+        gc.strokeLine(x, y - 4, x, y + 20);
+        
+        if (facing == FACING_DOWN || facing == FACING_UP) {
+            // Arms (one line, tilting as they swing) and legs, lifting a foot in turn
+            gc.strokeLine(x - 12, y + 5 + 3 * swing, x + 12, y + 5 - 3 * swing);
+            gc.strokeLine(x, y + 20, x - 8, y + 35 - (swing > 0 ? 5 : 0));
+            gc.strokeLine(x, y + 20, x + 8, y + 35 - (swing < 0 ? 5 : 0));
+        } else {
+            // Seen from the side, arms and legs swing forwards and back
+            gc.strokeLine(x, y + 5, x + 8 * swing, y + 16);
+            gc.strokeLine(x, y + 5, x - 8 * swing, y + 16);
+            gc.strokeLine(x, y + 20, x + 9 * swing, y + 35);
+            gc.strokeLine(x, y + 20, x - 9 * swing, y + 35);
+        }
+        
+        // A simple face, looking the way it's going; nothing from behind
+        if (facing == FACING_UP) return;
+        double look = facing == FACING_LEFT ? -3 : facing == FACING_RIGHT ? 3 : 0;
+        // Eyes
+        gc.fillOval(x - 5 + look, y - 16, 2, 2);
+        gc.fillOval(x + 3 + look, y - 16, 2, 2);
+        // Smile
+        gc.strokeArc(x - 4 + look, y - 14, 8, 6, 0, 180, ArcType.OPEN);
+    }
+}
\ No newline at end of file
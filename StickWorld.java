@@ -0,0 +1,456 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+// The endless world StickFigureGame's open world mode (O) wanders around, generated from a seed
+// one chunk of CHUNK_TILES x CHUNK_TILES tiles at a time as the player comes near. Chunks are
+// kept in a cache, least recently used first out once it holds more than its memory budget;
+// one that was changed (trampled into a path) is saved to its region file on the way out and
+// loaded back from there next time rather than generated afresh. So however far the player
+// walks, only the budget's worth of chunks and a few mapped region files are ever held.
+class StickWorld implements Closeable {
+    static final int TILE_SIZE = 8;
+    static final int CHUNK_TILES = 32;
+    static final int CHUNK_SIZE = TILE_SIZE * CHUNK_TILES;
+    
+    // Tiles
+    static final byte GRASS = 0;
+    static final byte TALL_GRASS = 1;
+    static final byte FLOWERS = 2;
+    static final byte PATH = 3;
+    static final byte SAND = 4;
+    static final byte WATER = 5;
+    static final byte ROCK = 6;
+    static final byte TREE = 7;
+    private static final Color[] TILE_COLORS = {
+        Color.rgb(120, 190, 90), Color.rgb(90, 160, 70), Color.rgb(230, 200, 90), Color.rgb(190, 160, 110),
+        Color.rgb(235, 220, 160), Color.rgb(70, 130, 200), Color.rgb(130, 130, 130), Color.rgb(40, 100, 40)
+    };
+    private static final int[] TILE_ARGB = new int[TILE_COLORS.length];
+    static {
+        for (int i = 0; i < TILE_COLORS.length; i++) {
+            Color color = TILE_COLORS[i];
+            TILE_ARGB[i] = 0xFF000000 | (int) Math.round(color.getRed() * 255) << 16 |
+                           (int) Math.round(color.getGreen() * 255) << 8 | (int) Math.round(color.getBlue() * 255);
+        }
+    }
+    
+    // What a cached chunk costs: its tiles, plus a rough allowance for the chunk object, the
+    // array header and its slot in the cache
+    static final long CHUNK_MEMORY = CHUNK_TILES * CHUNK_TILES + 96;
+    private static final int MAX_OPEN_REGIONS = 4;
+    private static final int MIN_CACHED_CHUNKS = 64;
+    
+    final long seed;
+    private final Path dir;
+    private final long budget;
+    
+    // The cached chunks, in an open-addressed table found by their coordinates (so a lookup
+    // never boxes a key) and threaded on a list from least to most recently used. Every lookup,
+    // even of the chunk looked up last, moves it to the most recent end.
+    private Chunk[] table = new Chunk[128];
+    private int cached = 0;
+    private Chunk oldest;
+    private Chunk newest;
+    
+    // In least recently used order, keyed by packed coordinates. These are only looked up when a
+    // chunk is loaded or saved, which touches the disk anyway, so the boxed key doesn't matter.
+    private final LinkedHashMap<Long, StickWorldRegion> regions = new LinkedHashMap<>(8, 0.75f, true);
+    
+    // The chunks in view, gathered again only when the view crosses into other chunks, and the
+    // chunk last looked up, which is usually the next one too. Gathering them makes them the
+    // most recently used, nothing else is loaded until the view moves on, and the budget leaves
+    // room for many screenfuls, so these are never evicted from under us.
+    private Chunk[] visible = new Chunk[32];
+    private int visibleCount = 0;
+    private int visibleFirstX;
+    private int visibleFirstY;
+    private int visibleLastX;
+    private int visibleLastY;
+    private Chunk last;
+    
+    // A picture of each chunk in view, one pixel a tile, drawn scaled up; painted again only
+    // when the slot's chunk changes or is trampled, so a frame is one drawImage a chunk. Made
+    // on the first draw, so a world that's never drawn (the benchmark) needs no FX toolkit.
+    private WritableImage[] pictures = new WritableImage[32];
+    private Chunk[] pictured = new Chunk[32];
+    private final int[] pixels = new int[CHUNK_TILES * CHUNK_TILES];
+    
+    // Since the world was opened
+    long generated = 0;
+    long loaded = 0;
+    long saved = 0;
+    
+    static class Chunk {
+        int x;
+        int y;
+        final byte[] tiles = new byte[CHUNK_TILES * CHUNK_TILES];
+        boolean dirty; // Changed since it was generated or loaded
+        boolean repaint; // Changed since its picture was painted
+        Chunk older;
+        Chunk newer;
+    }
+    
+    // budget is in bytes, and must leave room for several screenfuls of chunks
+    StickWorld(Path dir, long seed, long budget) throws IOException {
+        if (budget < MIN_CACHED_CHUNKS * CHUNK_MEMORY) {
+            throw new IllegalArgumentException("Budget too small for " + MIN_CACHED_CHUNKS + " chunks: " + budget);
+        }
+        Files.createDirectories(dir);
+        this.dir = dir;
+        this.seed = seed;
+        this.budget = budget;
+    }
+    
+    int cachedChunks() {
+        return cached;
+    }
+    
+    // The tile at a point in the world
+    byte tile(double x, double y) {
+        Chunk chunk = chunkAt(x, y);
+        return chunk.tiles[tileIndex(x, y)];
+    }
+    
+    // Water, rocks and trees can't be walked through
+    boolean walkable(double x, double y) {
+        return tile(x, y) < WATER;
+    }
+    
+    // Wears grass down into a path where someone walks
+    void trample(double x, double y) {
+        Chunk chunk = chunkAt(x, y);
+        int i = tileIndex(x, y);
+        if (chunk.tiles[i] < PATH) {
+            chunk.tiles[i] = PATH;
+            chunk.dirty = true;
+            chunk.repaint = true;
+        }
+    }
+    
+    // Fetches (generating or loading as needed) every chunk overlapping the given rectangle
+    // of the world, and returns how many there are
+    int streamIn(double left, double top, double width, double height) {
+        int firstX = chunkCoordinate(left);
+        int firstY = chunkCoordinate(top);
+        int lastX = chunkCoordinate(left + width);
+        int lastY = chunkCoordinate(top + height);
+        if (visibleCount > 0 && firstX == visibleFirstX && firstY == visibleFirstY &&
+            lastX == visibleLastX && lastY == visibleLastY) {
+            return visibleCount;
+        }
+        visibleFirstX = firstX;
+        visibleFirstY = firstY;
+        visibleLastX = lastX;
+        visibleLastY = lastY;
+        
+        int count = (lastX - firstX + 1) * (lastY - firstY + 1);
+        if (count > visible.length) {
+            visible = Arrays.copyOf(visible, count);
+            pictures = Arrays.copyOf(pictures, count);
+            pictured = Arrays.copyOf(pictured, count);
+        }
+        visibleCount = 0;
+        for (int y = firstY; y <= lastY; y++) {
+            for (int x = firstX; x <= lastX; x++) {
+                visible[visibleCount++] = chunk(x, y);
+            }
+        }
+        return visibleCount;
+    }
+    
+    // Draws the part of the world at (left, top) onto the whole of a width x height canvas
+    void draw(GraphicsContext gc, double left, double top, double width, double height) {
+        streamIn(left, top, width, height);
+        
+        // Blown up with smoothing, the tiles would blur into each other
+        gc.setImageSmoothing(false);
+        for (int c = 0; c < visibleCount; c++) {
+            Chunk chunk = visible[c];
+            if (pictured[c] != chunk || chunk.repaint) {
+                paint(c, chunk);
+            }
+            gc.drawImage(pictures[c], (double) chunk.x * CHUNK_SIZE - left, (double) chunk.y * CHUNK_SIZE - top,
+                         CHUNK_SIZE, CHUNK_SIZE);
+        }
+        gc.setImageSmoothing(true);
+    }
+    
+    private void paint(int slot, Chunk chunk) {
+        if (pictures[slot] == null) {
+            pictures[slot] = new WritableImage(CHUNK_TILES, CHUNK_TILES);
+        }
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = TILE_ARGB[chunk.tiles[i]];
+        }
+        pictures[slot].getPixelWriter().setPixels(0, 0, CHUNK_TILES, CHUNK_TILES, PixelFormat.getIntArgbInstance(),
+                                                  pixels, 0, CHUNK_TILES);
+        pictured[slot] = chunk;
+        chunk.repaint = false;
+    }
+    
+    private Chunk chunkAt(double x, double y) {
+        return chunk(chunkCoordinate(x), chunkCoordinate(y));
+    }
+    
+    private Chunk chunk(int x, int y) {
+        if (last == null || last.x != x || last.y != y) {
+            Chunk chunk = find(x, y);
+            last = chunk != null ? chunk : load(x, y);
+        }
+        if (last != newest) {
+            unlink(last);
+            append(last);
+        }
+        return last;
+    }
+    
+    // Brings a chunk into the cache, making room first by saving and reusing the least
+    // recently used one when the budget is spent
+    private Chunk load(int x, int y) {
+        Chunk chunk;
+        if (cached > 0 && (cached + 1) * CHUNK_MEMORY > budget) {
+            chunk = oldest;
+            unlink(chunk);
+            remove(chunk);
+            if (chunk.dirty) {
+                save(chunk);
+            }
+        } else {
+            chunk = new Chunk();
+        }
+        
+        chunk.x = x;
+        chunk.y = y;
+        chunk.dirty = false;
+        chunk.repaint = true;
+        StickWorldRegion region = region(x, y, false);
+        if (region != null && region.load(Math.floorMod(x, StickWorldRegion.REGION_SIZE),
+                                          Math.floorMod(y, StickWorldRegion.REGION_SIZE), chunk.tiles)) {
+            loaded++;
+        } else {
+            generate(chunk);
+            generated++;
+        }
+        insert(chunk);
+        append(chunk);
+        return chunk;
+    }
+    
+    // The cached chunk at some chunk coordinates, or null
+    private Chunk find(int x, int y) {
+        int mask = table.length - 1;
+        for (int i = slot(x, y) & mask; table[i] != null; i = (i + 1) & mask) {
+            if (table[i].x == x && table[i].y == y) return table[i];
+        }
+        return null;
+    }
+    
+    private void insert(Chunk chunk) {
+        if ((cached + 1) * 2 > table.length) {
+            Chunk[] old = table;
+            table = new Chunk[old.length * 2];
+            cached = 0;
+            for (Chunk c : old) {
+                if (c != null) {
+                    insert(c);
+                }
+            }
+        }
+        int mask = table.length - 1;
+        int i = slot(chunk.x, chunk.y) & mask;
+        while (table[i] != null) {
+            i = (i + 1) & mask;
+        }
+        table[i] = chunk;
+        cached++;
+    }
+    
+    // Takes a chunk out of the table, shifting back any after it that would otherwise no
+    // longer be found past the gap
+    private void remove(Chunk chunk) {
+        int mask = table.length - 1;
+        int gap = slot(chunk.x, chunk.y) & mask;
+        while (table[gap] != chunk) {
+            gap = (gap + 1) & mask;
+        }
+        table[gap] = null;
+        cached--;
+        for (int i = (gap + 1) & mask; table[i] != null; i = (i + 1) & mask) {
+            int home = slot(table[i].x, table[i].y) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                table[gap] = table[i];
+                table[i] = null;
+                gap = i;
+            }
+        }
+    }
+    
+    private void unlink(Chunk chunk) {
+        if (chunk.older != null) {
+            chunk.older.newer = chunk.newer;
+        } else {
+            oldest = chunk.newer;
+        }
+        if (chunk.newer != null) {
+            chunk.newer.older = chunk.older;
+        } else {
+            newest = chunk.older;
+        }
+        chunk.older = null;
+        chunk.newer = null;
+    }
+    
+    private void append(Chunk chunk) {
+        chunk.older = newest;
+        if (newest != null) {
+            newest.newer = chunk;
+        } else {
+            oldest = chunk;
+        }
+        newest = chunk;
+    }
+    
+    private void save(Chunk chunk) {
+        region(chunk.x, chunk.y, true).save(Math.floorMod(chunk.x, StickWorldRegion.REGION_SIZE),
+                                      Math.floorMod(chunk.y, StickWorldRegion.REGION_SIZE), chunk.tiles);
+        chunk.dirty = false;
+        saved++;
+    }
+    
+    // The region file holding a chunk, opened if it isn't already; only a few are kept open.
+    // Null if the file isn't there and create is false: nothing there was ever saved.
+    private StickWorldRegion region(int chunkX, int chunkY, boolean create) {
+        int x = Math.floorDiv(chunkX, StickWorldRegion.REGION_SIZE);
+        int y = Math.floorDiv(chunkY, StickWorldRegion.REGION_SIZE);
+        Long key = key(x, y);
+        StickWorldRegion region = regions.get(key);
+        if (region != null) return region;
+        Path path = dir.resolve("r." + x + "." + y + ".dat");
+        if (!create && !Files.exists(path)) return null;
+        try {
+            if (regions.size() >= MAX_OPEN_REGIONS) {
+                Iterator<StickWorldRegion> eldest = regions.values().iterator();
+                eldest.next().close();
+                eldest.remove();
+            }
+            region = new StickWorldRegion(path, seed);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        regions.put(key, region);
+        return region;
+    }
+    
+    // Rolling hills of value noise: water in the hollows with sand around it, rock on the
+    // tops, and grass between, scattered with trees and flowers
+    private void generate(Chunk chunk) {
+        long firstX = (long) chunk.x * CHUNK_TILES;
+        long firstY = (long) chunk.y * CHUNK_TILES;
+        for (int i = 0; i < chunk.tiles.length; i++) {
+            long x = firstX + i % CHUNK_TILES;
+            long y = firstY + i / CHUNK_TILES;
+            double height = noise(x, y, 64) * 0.7 + noise(x, y, 16) * 0.3;
+            double roll = unit(hash(seed, x, y));
+            byte tile;
+            if (height < 0.3) {
+                tile = WATER;
+            } else if (height < 0.34) {
+                tile = SAND;
+            } else if (height > 0.72) {
+                tile = ROCK;
+            } else if (roll < 0.04) {
+                tile = TREE;
+            } else if (roll < 0.07) {
+                tile = FLOWERS;
+            } else if (roll < 0.2) {
+                tile = TALL_GRASS;
+            } else {
+                tile = GRASS;
+            }
+            chunk.tiles[i] = tile;
+        }
+    }
+    
+    // Random values at every scale'th tile, smoothly blended in between; 0 to 1
+    private double noise(long x, long y, int scale) {
+        long cellX = Math.floorDiv(x, scale);
+        long cellY = Math.floorDiv(y, scale);
+        double fx = smooth((double) (x - cellX * scale) / scale);
+        double fy = smooth((double) (y - cellY * scale) / scale);
+        long layer = seed + scale;
+        double top = lerp(unit(hash(layer, cellX, cellY)), unit(hash(layer, cellX + 1, cellY)), fx);
+        double bottom = lerp(unit(hash(layer, cellX, cellY + 1)), unit(hash(layer, cellX + 1, cellY + 1)), fx);
+        return lerp(top, bottom, fy);
+    }
+    
+    private static double smooth(double t) {
+        return t * t * (3 - 2 * t);
+    }
+    
+    private static double lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+    
+    // SplitMix64's finaliser over the seed and a point
+    private static long hash(long seed, long x, long y) {
+        long z = seed + x * 0x9E3779B97F4A7C15L + y * 0xC2B2AE3D27D4EB4FL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    private static double unit(long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+    
+    private static int chunkCoordinate(double position) {
+        return (int) Math.floor(position / CHUNK_SIZE);
+    }
+    
+    private static int tileIndex(double x, double y) {
+        int tileX = Math.floorMod((int) Math.floor(x / TILE_SIZE), CHUNK_TILES);
+        int tileY = Math.floorMod((int) Math.floor(y / TILE_SIZE), CHUNK_TILES);
+        return tileY * CHUNK_TILES + tileX;
+    }
+    
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+    
+    // Spreads neighbouring coordinates across the table
+    private static int slot(int x, int y) {
+        return (int) ((key(x, y) * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+    
+    // Saves every changed chunk still in the cache and closes the region files
+    @Override
+    public void close() throws IOException {
+        for (Chunk chunk = oldest; chunk != null; chunk = chunk.newer) {
+            if (chunk.dirty) {
+                save(chunk);
+            }
+        }
+        for (StickWorldRegion region : regions.values()) {
+            region.flush();
+            region.close();
+        }
+        regions.clear();
+        Arrays.fill(table, null);
+        cached = 0;
+        oldest = null;
+        newest = null;
+        visibleCount = 0;
+        Arrays.fill(pictured, null);
+        last = null;
+    }
+}
\ No newline at end of file
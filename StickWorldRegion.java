@@ -0,0 +1,75 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// One region of StickWorld on disk: a square of REGION_SIZE x REGION_SIZE chunks in a file of
+// fixed-size slots. The whole file is memory-mapped, so saving or loading a chunk is copying
+// its tiles into or out of the mapping, and the OS writes the pages back in its own time.
+//
+// File layout: magic, version, world seed, then one slot per chunk, row by row: a byte that's
+// 1 once the chunk has been saved, then its tiles.
+class StickWorldRegion implements Closeable {
+    static final int REGION_SIZE = 32;
+    private static final int MAGIC = 0x53575247; // "SWRG"
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 1 + 8;
+    private static final int SLOT_SIZE = 1 + StickWorld.CHUNK_TILES * StickWorld.CHUNK_TILES;
+    private static final long FILE_SIZE = HEADER_SIZE + (long) SLOT_SIZE * REGION_SIZE * REGION_SIZE;
+    
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    
+    StickWorldRegion(Path path, long seed) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                   StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size != 0 && size != FILE_SIZE) {
+            channel.close();
+            throw new IOException("Not a world region: " + path);
+        }
+        // Mapping past the end grows a new file to full size, all slots empty
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+        if (size == 0) {
+            map.putInt(0, MAGIC);
+            map.put(4, VERSION);
+            map.putLong(5, seed);
+        } else if (map.getInt(0) != MAGIC || map.get(4) != VERSION || map.getLong(5) != seed) {
+            channel.close();
+            throw new IOException("Not a region of this world: " + path);
+        }
+    }
+    
+    // Copies a chunk's saved tiles into tiles; false, leaving them alone, if it was never saved.
+    // (x, y) is the chunk's place within the region.
+    boolean load(int x, int y, byte[] tiles) {
+        int slot = slot(x, y);
+        if (map.get(slot) == 0) return false;
+        map.get(slot + 1, tiles);
+        return true;
+    }
+    
+    void save(int x, int y, byte[] tiles) {
+        int slot = slot(x, y);
+        map.put(slot + 1, tiles);
+        map.put(slot, (byte) 1);
+    }
+    
+    private static int slot(int x, int y) {
+        return HEADER_SIZE + (y * REGION_SIZE + x) * SLOT_SIZE;
+    }
+    
+    // Waits for everything saved to reach the disk. Not needed for it to get there (the OS
+    // writes the pages back by itself, even after the game exits), only to be sure it has.
+    void flush() {
+        map.force();
+    }
+    
+    // The mapping itself goes when the garbage collector gets to it
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
\ No newline at end of file
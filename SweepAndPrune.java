@@ -0,0 +1,50 @@
+// A sort-and-sweep broad phase for circles that all share one radius. The circles' indices are
+// kept sorted by x, so two circles can only touch if they're within a diameter of each other
+// along the order, and a sweep only has to look ahead until the gap in x gets that wide. Things
+// move a little each tick, so the order stays nearly sorted and an insertion sort puts it right
+// again in close to linear time; only newly added circles have far to go.
+class SweepAndPrune {
+    final int[] order; // Indices, sorted by x after sort()
+    int count = 0;
+    
+    SweepAndPrune(int capacity) {
+        order = new int[capacity];
+    }
+    
+    void add(int index) {
+        order[count++] = index;
+    }
+    
+    void clear() {
+        count = 0;
+    }
+    
+    // Re-sorts the order by the current positions
+    void sort(double[] x) {
+        for (int a = 1; a < count; a++) {
+            int index = order[a];
+            double key = x[index];
+            int b = a - 1;
+            while (b >= 0 && x[order[b]] > key) {
+                order[b + 1] = order[b];
+                b--;
+            }
+            order[b + 1] = index;
+        }
+    }
+    
+    // Where in the (sorted) order the first circle with x at least value is
+    int lowerBound(double[] x, double value) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (x[order[middle]] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
\ No newline at end of file
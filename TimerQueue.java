@@ -0,0 +1,108 @@
+import java.util.Arrays;
+
+// Game events due at a given tick, in a binary heap of parallel primitive arrays so that
+// scheduling and running them doesn't allocate. An event is just a kind and a target (an
+// id the game gives meaning to). Events due on the same tick come out in the order they
+// were scheduled.
+class TimerQueue {
+    private long[] ticks;
+    private long[] order; // Scheduling order, to break ties between events on the same tick
+    private int[] kinds;
+    private int[] targets;
+    private int size = 0;
+    private long scheduled = 0;
+    
+    TimerQueue(int capacity) {
+        ticks = new long[capacity];
+        order = new long[capacity];
+        kinds = new int[capacity];
+        targets = new int[capacity];
+    }
+    
+    void schedule(long tick, int kind, int target) {
+        if (size == ticks.length) {
+            // Only happens if the capacity was too small to begin with
+            int capacity = 2 * size;
+            ticks = Arrays.copyOf(ticks, capacity);
+            order = Arrays.copyOf(order, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+        }
+        
+        // Sift up from the end
+        int i = size++;
+        long seq = scheduled++;
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!before(tick, seq, parent)) break;
+            move(parent, i);
+            i = parent;
+        }
+        set(i, tick, seq, kind, target);
+    }
+    
+    // Whether the earliest event is due by the given tick
+    boolean hasDue(long tick) {
+        return size > 0 && ticks[0] <= tick;
+    }
+    
+    // The earliest event; only valid when the queue isn't empty
+    int nextKind() {
+        return kinds[0];
+    }
+    
+    int nextTarget() {
+        return targets[0];
+    }
+    
+    // Drops the earliest event
+    void pop() {
+        size--;
+        if (size == 0) return;
+        
+        // Sift the last event down from the top
+        long tick = ticks[size];
+        long seq = order[size];
+        int kind = kinds[size];
+        int target = targets[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && before(ticks[child + 1], order[child + 1], child)) {
+                child++;
+            }
+            if (!before(ticks[child], order[child], tick, seq)) break;
+            move(child, i);
+            i = child;
+        }
+        set(i, tick, seq, kind, target);
+    }
+    
+    boolean isEmpty() {
+        return size == 0;
+    }
+    
+    void clear() {
+        size = 0;
+    }
+    
+    private boolean before(long tick, long seq, int i) {
+        return before(tick, seq, ticks[i], order[i]);
+    }
+    
+    private static boolean before(long tick, long seq, long otherTick, long otherSeq) {
+        return tick < otherTick || (tick == otherTick && seq < otherSeq);
+    }
+    
+    private void move(int from, int to) {
+        set(to, ticks[from], order[from], kinds[from], targets[from]);
+    }
+    
+    private void set(int i, long tick, long seq, int kind, int target) {
+        ticks[i] = tick;
+        order[i] = seq;
+        kinds[i] = kind;
+        targets[i] = target;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+// The games are written in the default package, which a named package can't import (and JMH
+// won't run benchmarks from the default package). So the benchmarks reach the game classes
+// through method handles, resolved once into static finals where the JIT treats them as
+// constants and the call costs the same as a direct one.
+final class Games {
+    private Games() {
+    }
+    
+    static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    // Game types can't be named from here, so every handle takes and returns them as Object
+    private static MethodHandle erased(MethodHandle handle) {
+        MethodType type = handle.type();
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (!type.parameterType(i).isPrimitive()) {
+                type = type.changeParameterType(i, Object.class);
+            }
+        }
+        if (!type.returnType().isPrimitive()) {
+            type = type.changeReturnType(Object.class);
+        }
+        return handle.asType(type);
+    }
+    
+    private static MethodHandles.Lookup lookup(Class<?> type) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+    }
+    
+    // A constructor
+    static MethodHandle constructor(String className, Class<?>... parameterTypes) {
+        try {
+            Class<?> type = type(className);
+            MethodHandle handle = lookup(type).findConstructor(type, MethodType.methodType(void.class, parameterTypes));
+            return erased(handle);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    // An instance method, private or not
+    static MethodHandle method(String className, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            Class<?> type = type(className);
+            MethodHandle handle = lookup(type).findVirtual(type, name, MethodType.methodType(returnType, parameterTypes));
+            return erased(handle);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    // A field getter
+    static MethodHandle getter(String className, String name, Class<?> fieldType) {
+        try {
+            Class<?> type = type(className);
+            MethodHandle handle = lookup(type).findGetter(type, name, fieldType);
+            return erased(handle);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    // A field setter
+    static MethodHandle setter(String className, String name, Class<?> fieldType) {
+        try {
+            Class<?> type = type(className);
+            MethodHandle handle = lookup(type).findSetter(type, name, fieldType);
+            return erased(handle);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
\ No newline at end of file
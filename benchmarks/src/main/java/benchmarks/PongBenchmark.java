@@ -0,0 +1,67 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One Pong tick as the game runs it: both paddles asking the AI for input, then a
+// PongSimulation step. Matches restart as soon as one is won, so this measures play.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PongBenchmark {
+    private static final Class<?> DIFFICULTY = Games.type("PongAI$Difficulty");
+    
+    private static final MethodHandle NEW_SIMULATION = Games.constructor("PongSimulation", long.class);
+    private static final MethodHandle NEW_AI = Games.constructor("PongAI", boolean.class, DIFFICULTY, long.class);
+    private static final MethodHandle SET_CHAOS_BALLS = Games.method("PongSimulation", "setChaosBalls", void.class, int.class);
+    private static final MethodHandle RESTART = Games.method("PongSimulation", "restart", void.class);
+    private static final MethodHandle STEP = Games.method("PongSimulation", "step", void.class, int.class);
+    private static final MethodHandle GAME_OVER = Games.getter("PongSimulation", "gameOver", boolean.class);
+    private static final MethodHandle AI_INPUT = Games.method("PongAI", "input", int.class, Games.type("PongSimulation"));
+    
+    // Extra balls of chaos mode; 0 is the normal game
+    @Param({"0", "1000", "5000"})
+    int chaosBalls;
+    
+    private Object sim;
+    private Object ai1;
+    private Object ai2;
+    
+    @Setup
+    public void setUp() throws Throwable {
+        Object normal = enumConstant(DIFFICULTY, "NORMAL");
+        sim = (Object) NEW_SIMULATION.invokeExact(1L);
+        ai1 = (Object) NEW_AI.invokeExact(false, normal, 2L);
+        ai2 = (Object) NEW_AI.invokeExact(true, normal, 3L);
+        SET_CHAOS_BALLS.invokeExact(sim, chaosBalls);
+        RESTART.invokeExact(sim);
+    }
+    
+    @Benchmark
+    public void tick() throws Throwable {
+        int input = (int) AI_INPUT.invokeExact(ai1, sim) | (int) AI_INPUT.invokeExact(ai2, sim);
+        STEP.invokeExact(sim, input);
+        if ((boolean) GAME_OVER.invokeExact(sim)) {
+            RESTART.invokeExact(sim);
+        }
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object enumConstant(Class<?> type, String name) {
+        return Enum.valueOf((Class) type, name);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The Sans battle's attack turn with a given number of bones and blasters on screen. Each
+// invocation starts a fresh attack, spawns the entities through the game's own spawn methods
+// and runs two seconds of ticks, so the score is the cost of one tick of the attack turn.
+// Runs on SansSimulation, the battle's rules without the window.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SansBattleBenchmark {
+    private static final int TICKS = 120;
+    private static final int BONES_PER_WALL = 6;
+    
+    private static final MethodHandle NEW_BATTLE = Games.constructor("SansSimulation");
+    private static final MethodHandle SET_HP = Games.setter("SansSimulation", "playerHP", int.class);
+    private static final MethodHandle START_ATTACK = Games.method("SansSimulation", "startSansAttack", void.class);
+    private static final MethodHandle SPAWN_BONE_WALL = Games.method("SansSimulation", "spawnBoneWall", void.class, int.class, int.class);
+    private static final MethodHandle SPAWN_BLASTER = Games.method("SansSimulation", "spawnGasterBlaster", void.class);
+    private static final MethodHandle STEP = Games.method("SansSimulation", "step", void.class, int.class);
+    
+    @Param({"0", "120", "1200"})
+    int bones;
+    
+    @Param({"0", "10", "100"})
+    int blasters;
+    
+    private Object battle;
+    
+    @Setup
+    public void setUp() throws Throwable {
+        battle = (Object) NEW_BATTLE.invokeExact();
+        // Bones and beams hit the player constantly; keep it alive so every tick does full work
+        SET_HP.invokeExact(battle, Integer.MAX_VALUE);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public void attackTick() throws Throwable {
+        START_ATTACK.invokeExact(battle);
+        for (int i = 0; i < bones / BONES_PER_WALL; i++) {
+            SPAWN_BONE_WALL.invokeExact(battle, 3, 4);
+        }
+        for (int i = 0; i < blasters; i++) {
+            SPAWN_BLASTER.invokeExact(battle);
+        }
+        for (int t = 0; t < TICKS; t++) {
+            STEP.invokeExact(battle, 0);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One tick of the Sans battle's stress test, which keeps 10,000 bones flying around the
+// player. The test is restarted whenever its attack turn runs out.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SansStressBenchmark {
+    private static final MethodHandle NEW_BATTLE = Games.constructor("SansSimulation");
+    private static final MethodHandle START_STRESS_TEST = Games.method("SansSimulation", "startStressTest", void.class);
+    private static final MethodHandle STEP = Games.method("SansSimulation", "step", void.class, int.class);
+    private static final MethodHandle PLAYER_TURN = Games.getter("SansSimulation", "playerTurn", boolean.class);
+    
+    private Object battle;
+    
+    @Setup
+    public void setUp() throws Throwable {
+        battle = (Object) NEW_BATTLE.invokeExact();
+        START_STRESS_TEST.invokeExact(battle);
+    }
+    
+    @Benchmark
+    public void stressTick() throws Throwable {
+        STEP.invokeExact(battle, 0);
+        if ((boolean) PLAYER_TURN.invokeExact(battle)) {
+            START_STRESS_TEST.invokeExact(battle);
+        }
+    }
+}
\ No newline at end of file
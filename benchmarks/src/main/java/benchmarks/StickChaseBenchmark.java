@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One tick of StickFigureGame's chase mode with a given number of chasers, spawned up front and
+// no more waves after. The player is moved along a circle through the open middle of the
+// window, so the flow field is searched again every few ticks as it would be in play; a
+// chaser catching the player is ignored, so the count stays the same.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StickChaseBenchmark {
+    private static final MethodHandle NEW_GAME = Games.constructor("StickFigureGame");
+    private static final MethodHandle UPDATE = Games.method("StickFigureGame", "update", void.class);
+    private static final MethodHandle SET_CHASE = Games.method("StickFigureGame", "setChase", void.class, boolean.class);
+    private static final MethodHandle SET_CHASE_FLAG = Games.setter("StickFigureGame", "chase", boolean.class);
+    private static final MethodHandle SPAWN_CHASER = Games.method("StickFigureGame", "spawnChaser", void.class);
+    private static final MethodHandle SET_GAME_OVER = Games.setter("StickFigureGame", "gameOver", boolean.class);
+    private static final MethodHandle SET_PLAYER_X = Games.setter("StickFigureGame", "playerX", double.class);
+    private static final MethodHandle SET_PLAYER_Y = Games.setter("StickFigureGame", "playerY", double.class);
+    
+    @Param({"100", "1000", "4000"})
+    int chasers;
+    
+    private Object game;
+    private int tick = 0;
+    
+    @Setup
+    public void setUp() throws Throwable {
+        game = (Object) NEW_GAME.invokeExact();
+        SET_CHASE.invokeExact(game, true);
+        for (int i = 0; i < chasers; i++) {
+            SPAWN_CHASER.invokeExact(game);
+        }
+        // The chasers keep coming, but no more waves
+        SET_CHASE_FLAG.invokeExact(game, false);
+    }
+    
+    @Benchmark
+    public void tick() throws Throwable {
+        double angle = tick++ * 0.02;
+        SET_PLAYER_X.invokeExact(game, 400 + 50 * Math.cos(angle));
+        SET_PLAYER_Y.invokeExact(game, 300 + 50 * Math.sin(angle));
+        UPDATE.invokeExact(game);
+        SET_GAME_OVER.invokeExact(game, false);
+    }
+}
\ No newline at end of file
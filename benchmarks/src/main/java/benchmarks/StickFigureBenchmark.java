@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One tick of StickFigureGame, headless. With no balls given it's the classic game, restarted
+// whenever the ball catches the stick figure, so every measured tick is a live one. Otherwise
+// it's survival mode filled with that many balls up front and no more waves; a ball reaching
+// the stick figure is ignored, so the number of balls stays the same. The wandering crowd of stick
+// figures can be brought out as well.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StickFigureBenchmark {
+    private static final MethodHandle NEW_GAME = Games.constructor("StickFigureGame");
+    private static final MethodHandle UPDATE = Games.method("StickFigureGame", "update", void.class);
+    private static final MethodHandle RESTART = Games.method("StickFigureGame", "restartGame", void.class);
+    private static final MethodHandle GAME_OVER = Games.getter("StickFigureGame", "gameOver", boolean.class);
+    private static final MethodHandle SET_GAME_OVER = Games.setter("StickFigureGame", "gameOver", boolean.class);
+    private static final MethodHandle SET_SURVIVAL = Games.method("StickFigureGame", "setSurvival", void.class, boolean.class);
+    private static final MethodHandle SET_SURVIVAL_FLAG = Games.setter("StickFigureGame", "survival", boolean.class);
+    private static final MethodHandle SPAWN_BALL = Games.method("StickFigureGame", "spawnBall", void.class);
+    private static final MethodHandle SET_CROWD = Games.method("StickFigureGame", "setCrowd", void.class, boolean.class);
+    
+    @Param({"0", "500", "2000", "4000"})
+    int balls;
+    
+    @Param({"false", "true"})
+    boolean crowd;
+    
+    private Object game;
+    
+    @Setup
+    public void setUp() throws Throwable {
+        game = (Object) NEW_GAME.invokeExact();
+        if (balls > 0) {
+            SET_SURVIVAL.invokeExact(game, true);
+            for (int i = 1; i < balls; i++) {
+                SPAWN_BALL.invokeExact(game);
+            }
+            // Survival's balls, but no more waves
+            SET_SURVIVAL_FLAG.invokeExact(game, false);
+        }
+        SET_CROWD.invokeExact(game, crowd);
+    }
+    
+    @Benchmark
+    public void tick() throws Throwable {
+        UPDATE.invokeExact(game);
+        if ((boolean) GAME_OVER.invokeExact(game)) {
+            if (balls > 0) {
+                SET_GAME_OVER.invokeExact(game, false);
+            } else {
+                RESTART.invokeExact(game);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One tick of a stick figure walking a straight line across StickWorld forever, wearing a path
+// as it goes: the chunks in view are streamed in (generated, or loaded back from the region
+// files) and the ones left behind evicted and saved once the cache's budget is spent. The
+// score should be the same however long it runs; the world is written to a temporary directory.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StickWorldBenchmark {
+    private static final double SPEED = 3;
+    private static final double VIEW_WIDTH = 800;
+    private static final double VIEW_HEIGHT = 600;
+    
+    private static final MethodHandle NEW_WORLD = Games.constructor("StickWorld", Path.class, long.class, long.class);
+    private static final MethodHandle STREAM_IN = Games.method("StickWorld", "streamIn", int.class,
+                                                                double.class, double.class, double.class, double.class);
+    private static final MethodHandle TRAMPLE = Games.method("StickWorld", "trample", void.class, double.class, double.class);
+    private static final MethodHandle CLOSE = Games.method("StickWorld", "close", void.class);
+    
+    // Cache budget in bytes
+    @Param({"262144", "1048576"})
+    long budget;
+    
+    private Path dir;
+    private Object world;
+    private double x = 0;
+    private double y = 0;
+    
+    @Setup
+    public void setUp() throws Throwable {
+        dir = Files.createTempDirectory("stick-world");
+        world = (Object) NEW_WORLD.invokeExact((Object) dir, 1L, budget);
+    }
+    
+    @TearDown
+    public void tearDown() throws Throwable {
+        CLOSE.invokeExact(world);
+        try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            // Leave it for the OS to clear up
+        }
+        Files.deleteIfExists(dir);
+    }
+    
+    @Benchmark
+    public int walk() throws Throwable {
+        x += SPEED;
+        y += SPEED / 3;
+        int chunks = (int) STREAM_IN.invokeExact(world, x - VIEW_WIDTH / 2, y - VIEW_HEIGHT / 2, VIEW_WIDTH, VIEW_HEIGHT);
+        TRAMPLE.invokeExact(world, x, y);
+        return chunks;
+    }
+}
\ No newline at end of file
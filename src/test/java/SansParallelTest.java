@@ -0,0 +1,45 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+// The Sans battle's parallel bone update must end up exactly where the single-threaded one
+// does: two simulations with the same seed and the same inputs run the stress test side by
+// side, one with the parallel update switched off, and every tick their bones, hits and HP
+// must match to the bit. The build gives the common pool several workers even on a one-core
+// machine, so the chunks really interleave.
+class SansParallelTest {
+    private static final int TICKS = 2000;
+    
+    @Test
+    void parallelBoneUpdateMatchesSingleThreaded() {
+        SansSimulation parallel = battle(1, true);
+        SansSimulation plain = battle(1, false);
+        for (int t = 1; t <= TICKS; t++) {
+            // Wander the player around so different bones hit it
+            int input = (t / 90 % 2 == 0 ? 1 : 2) | (t / 70 % 2 == 0 ? 4 : 8); // Left or right, up or down
+            for (SansSimulation battle : new SansSimulation[] {parallel, plain}) {
+                battle.step(input);
+                if (battle.playerTurn) {
+                    battle.startStressTest();
+                }
+            }
+            
+            String tick = "tick " + t;
+            assertEquals(plain.playerHP, parallel.playerHP, tick);
+            assertEquals(plain.stressHits, parallel.stressHits, tick);
+            int count = plain.bones.count;
+            assertEquals(count, parallel.bones.count, tick);
+            assertArrayEquals(Arrays.copyOf(plain.bones.x, count), Arrays.copyOf(parallel.bones.x, count), tick);
+            assertArrayEquals(Arrays.copyOf(plain.bones.y, count), Arrays.copyOf(parallel.bones.y, count), tick);
+        }
+    }
+    
+    private static SansSimulation battle(long seed, boolean parallelBones) {
+        SansSimulation battle = new SansSimulation(seed);
+        battle.parallelBones = parallelBones;
+        battle.startStressTest();
+        return battle;
+    }
+}
\ No newline at end of file